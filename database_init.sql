@@ -20,9 +20,103 @@ CREATE TABLE IF NOT EXISTS users (
    user_name VARCHAR(50) NOT NULL UNIQUE,
    insert_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
    update_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+   version INT NOT NULL DEFAULT 0,
+   -- Índices de la búsqueda de usuarios: (columna, id) sirve al filtro y al orden por clave
+   INDEX idx_users_name (name, id),
+   INDEX idx_users_age (age, id),
+   INDEX idx_users_gender (gender_id, id),
+   INDEX idx_users_insert_date (insert_date, id),
+   INDEX idx_users_update_date (update_date, id),
    FOREIGN KEY (gender_id) REFERENCES gender(gender_id)
 );
 
+-- Registro de usuarios eliminados para la sincronización incremental (UserDAO.getTombstonesAfter)
+CREATE TABLE IF NOT EXISTS users_tombstone (
+   user_id INT PRIMARY KEY,
+   user_name VARCHAR(50) NOT NULL,
+   deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   INDEX idx_users_tombstone_deleted_at (deleted_at, user_id)
+);
+
+-- Directorio global de usuarios del modo fragmentado (ShardedUserDAO, Constants.SHARD_URLS)
+-- Solo se usa en la base de datos principal: asigna los IDs y mantiene único el user_name entre shards.
+-- Cada shard tiene sus propias tablas gender, users y users_tombstone creadas con este mismo script
+CREATE TABLE IF NOT EXISTS user_directory (
+   id INT AUTO_INCREMENT PRIMARY KEY,
+   user_name VARCHAR(50) NOT NULL UNIQUE
+);
+
+-- Cada borrado de users, también los hechos fuera de la aplicación, deja su registro
+DROP TRIGGER IF EXISTS trg_users_tombstone;
+CREATE TRIGGER trg_users_tombstone AFTER DELETE ON users
+FOR EACH ROW
+   REPLACE INTO users_tombstone (user_id, user_name, deleted_at)
+   VALUES (OLD.id, OLD.user_name, CURRENT_TIMESTAMP);
+
+-- Migración al modo fragmentado: registrar en el directorio los usuarios existentes
+-- INSERT INTO user_directory (id, user_name) SELECT id, user_name FROM users;
+
+-- Migración para bases de datos existentes: columna de concurrencia optimista
+-- CREATE TABLE IF NOT EXISTS no modifica una tabla users ya creada; la columna se añade solo si falta,
+-- por lo que el script puede ejecutarse de nuevo sin errores
+SET @migration = (
+   SELECT IF(COUNT(*) = 0,
+             'ALTER TABLE users ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER update_date',
+             'DO 0')
+   FROM information_schema.COLUMNS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND COLUMN_NAME = 'version'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Migración para bases de datos existentes: índices de la búsqueda de usuarios
+-- Cada índice se crea solo si falta
+SET @migration = (
+   SELECT IF(COUNT(*) = 0, 'ALTER TABLE users ADD INDEX idx_users_name (name, id)', 'DO 0')
+   FROM information_schema.STATISTICS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'idx_users_name'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @migration = (
+   SELECT IF(COUNT(*) = 0, 'ALTER TABLE users ADD INDEX idx_users_age (age, id)', 'DO 0')
+   FROM information_schema.STATISTICS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'idx_users_age'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @migration = (
+   SELECT IF(COUNT(*) = 0, 'ALTER TABLE users ADD INDEX idx_users_gender (gender_id, id)', 'DO 0')
+   FROM information_schema.STATISTICS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'idx_users_gender'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @migration = (
+   SELECT IF(COUNT(*) = 0, 'ALTER TABLE users ADD INDEX idx_users_insert_date (insert_date, id)', 'DO 0')
+   FROM information_schema.STATISTICS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'idx_users_insert_date'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @migration = (
+   SELECT IF(COUNT(*) = 0, 'ALTER TABLE users ADD INDEX idx_users_update_date (update_date, id)', 'DO 0')
+   FROM information_schema.STATISTICS
+   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'idx_users_update_date'
+);
+PREPARE migration FROM @migration;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
 -- Insertar datos de ejemplo para géneros
 INSERT INTO gender (gender_name) VALUES 
 ('Masculino'),
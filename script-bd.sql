@@ -24,9 +24,39 @@ CREATE TABLE users (
     user_name VARCHAR(50) NOT NULL UNIQUE,
     insert_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
+    -- Índices de la búsqueda de usuarios: (columna, id) sirve al filtro y al orden por clave
+    INDEX idx_users_name (name, id),
+    INDEX idx_users_age (age, id),
+    INDEX idx_users_gender (gender_id, id),
+    INDEX idx_users_insert_date (insert_date, id),
+    INDEX idx_users_update_date (update_date, id),
     FOREIGN KEY (gender_id) REFERENCES gender(gender_id)
 );
 
+-- Registro de usuarios eliminados para la sincronización incremental (UserDAO.getTombstonesAfter)
+CREATE TABLE users_tombstone (
+    user_id INT PRIMARY KEY,
+    user_name VARCHAR(50) NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_users_tombstone_deleted_at (deleted_at, user_id)
+);
+
+-- Directorio global de usuarios del modo fragmentado (ShardedUserDAO, Constants.SHARD_URLS)
+-- Solo se usa en la base de datos principal: asigna los IDs y mantiene único el user_name entre shards.
+-- Cada shard tiene sus propias tablas gender, users y users_tombstone creadas con este mismo script
+CREATE TABLE user_directory (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_name VARCHAR(50) NOT NULL UNIQUE
+);
+
+-- Cada borrado de users, también los hechos fuera de la aplicación, deja su registro
+DROP TRIGGER IF EXISTS trg_users_tombstone;
+CREATE TRIGGER trg_users_tombstone AFTER DELETE ON users
+FOR EACH ROW
+    REPLACE INTO users_tombstone (user_id, user_name, deleted_at)
+    VALUES (OLD.id, OLD.user_name, CURRENT_TIMESTAMP);
+
 
 
 -- Paso 5: Insertar datos iniciales (géneros)
@@ -3,11 +3,16 @@ package com.usermanagement;
 import com.usermanagement.config.DatabaseConfig;
 import com.usermanagement.dao.UserDAO;
 import com.usermanagement.dao.GenderDAO;
+import com.usermanagement.dao.ShardedUserDAO;
+import com.usermanagement.service.UserCache;
 import com.usermanagement.service.UserService;
 import com.usermanagement.service.GenderService;
 import com.usermanagement.service.UserServiceInterface;
 import com.usermanagement.service.GenderServiceInterface;
 import com.usermanagement.controller.UserController;
+import com.usermanagement.util.Constants;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Clase principal de la aplicación de gestión de usuarios
@@ -23,11 +28,37 @@ public class UserManagementApp {
             DatabaseConfig databaseConfig = DatabaseConfig.getInstance();
             
             // Crear DAOs con inyección de dependencias
-            UserDAO userDAO = new UserDAO(databaseConfig);
             GenderDAO genderDAO = new GenderDAO(databaseConfig);
             
+            // Cargar la caché de géneros (tabla referencial) y mantenerla actualizada
+            genderDAO.refreshCache();
+            genderDAO.startPeriodicRefresh(Constants.GENDER_CACHE_REFRESH_MS);
+            
+            // Con shards configurados, los usuarios se reparten por hash(id) y la base de datos
+            // principal solo guarda el directorio global y la tabla gender de referencia
+            List<DatabaseConfig> shardConfigs = new ArrayList<>();
+            for (String shardUrl : Constants.SHARD_URLS) {
+                shardConfigs.add(DatabaseConfig.forUrl(shardUrl));
+            }
+            ShardedUserDAO shardedUserDAO = null;
+            UserDAO userDAO;
+            if (shardConfigs.isEmpty()) {
+                userDAO = new UserDAO(databaseConfig, genderDAO);
+            } else {
+                shardedUserDAO = new ShardedUserDAO(databaseConfig, shardConfigs, genderDAO);
+                shardedUserDAO.replicateGenders();
+                userDAO = shardedUserDAO;
+            }
+            
             // Crear servicios con inyección de dependencias (usando interfaces)
-            UserServiceInterface userService = new UserService(userDAO, genderDAO);
+            // La caché puede desactivarse por despliegue con -Dusermanagement.userCache.enabled=false
+            boolean userCacheEnabled = Boolean.parseBoolean(System.getProperty(
+                Constants.USER_CACHE_ENABLED_PROPERTY, String.valueOf(Constants.USER_CACHE_ENABLED)));
+            UserCache userCache = userCacheEnabled
+                ? new UserCache(Constants.USER_CACHE_MAX_SIZE, Constants.USER_CACHE_TTL_MS,
+                                Constants.USER_CACHE_NEGATIVE_TTL_MS)
+                : null;
+            UserServiceInterface userService = new UserService(userDAO, genderDAO, userCache);
             GenderServiceInterface genderService = new GenderService(genderDAO);
             
             // Crear controlador con inyección de dependencias (usando interfaces)
@@ -37,6 +68,13 @@ public class UserManagementApp {
             userController.runSampleOperations();
             
             // Cerrar conexión a la base de datos
+            genderDAO.stopPeriodicRefresh();
+            if (shardedUserDAO != null) {
+                shardedUserDAO.close();
+            }
+            for (DatabaseConfig shardConfig : shardConfigs) {
+                shardConfig.closeConnection();
+            }
             databaseConfig.closeConnection();
             
             System.out.println("\n=== APLICACIÓN FINALIZADA ===");
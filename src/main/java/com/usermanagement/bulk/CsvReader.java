@@ -0,0 +1,214 @@
+package com.usermanagement.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Lector de CSV/TSV en streaming
+ * Lee un registro a la vez sobre un búfer de caracteres propio y reutiliza el arreglo de campos
+ * y el búfer de texto entre registros, por lo que la memoria no depende del tamaño del archivo.
+ * Solo se crea un String por campo: el texto original del registro no se conserva.
+ * Admite campos entre comillas dobles (con "" como comilla escapada y saltos de línea internos)
+ * y finales de línea \n o \r\n
+ */
+public final class CsvReader implements Closeable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char QUOTE = '"';
+    
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder(64);
+    private String[] fields = new String[8];
+    private int fieldCount;
+    private int position;
+    private int limit;
+    private long line;
+    private long recordLine;
+    private boolean recordQuoted;
+    private boolean started;
+    
+    /**
+     * Constructor
+     * @param reader origen de caracteres; no necesita estar envuelto en un BufferedReader
+     * @param delimiter separador de campos (',' para CSV, '\t' para TSV)
+     */
+    public CsvReader(Reader reader, char delimiter) {
+        if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Delimitador no válido: " + delimiter);
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+    
+    /**
+     * Avanza al siguiente registro
+     * @return true si se leyó un registro, false al final del archivo
+     * @throws IOException si hay error de lectura o una comilla sin cerrar
+     */
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        field.setLength(0);
+        recordQuoted = false;
+        recordLine = line + 1;
+        
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        
+        boolean inQuotes = false;
+        boolean quoted = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IOException("Comillas sin cerrar en el registro de la línea " + recordLine);
+                }
+                if (c == QUOTE) {
+                    int following = read();
+                    if (following == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        inQuotes = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == QUOTE && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+                recordQuoted = true;
+            } else if (c == delimiter) {
+                endField();
+                quoted = false;
+            } else if (c == '\n' || c == -1) {
+                endField();
+                line++;
+                return true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+    
+    /**
+     * Número de campos del registro actual
+     * @return cantidad de campos
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+    
+    /**
+     * Obtiene un campo del registro actual
+     * @param index posición del campo
+     * @return valor del campo, o null si el registro tiene menos campos
+     */
+    public String getField(int index) {
+        return index >= 0 && index < fieldCount ? fields[index] : null;
+    }
+    
+    /**
+     * Escribe el registro actual reconstruido a partir de sus campos, sin el fin de línea
+     * Los campos que contienen el delimitador, comillas o saltos de línea se escriben entre comillas:
+     * el resultado se lee con los mismos valores que el original aunque sus comillas puedan diferir
+     * @param out destino del registro
+     * @throws IOException si hay error de escritura
+     */
+    public void writeRecord(Writer out) throws IOException {
+        if (fieldCount == 1 && fields[0].isEmpty()) {
+            // Un único campo vacío se escribe entre comillas para no confundirlo con una línea vacía
+            out.write(QUOTE);
+            out.write(QUOTE);
+            return;
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            writeField(out, fields[i]);
+        }
+    }
+    
+    /**
+     * Indica si el registro actual es una línea vacía
+     * @return true si la línea no tiene contenido
+     */
+    public boolean isBlank() {
+        return fieldCount == 1 && fields[0].isEmpty() && !recordQuoted;
+    }
+    
+    /**
+     * Línea del archivo en la que empieza el registro actual (base 1)
+     * @return número de línea
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private void writeField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == delimiter || c == QUOTE || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                out.write(QUOTE);
+            }
+            out.write(c);
+        }
+        out.write(QUOTE);
+    }
+    
+    private void endField() {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[fieldCount++] = field.toString();
+        field.setLength(0);
+    }
+    
+    private int read() throws IOException {
+        if (position == limit) {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                position = 0;
+                limit = 0;
+                return -1;
+            }
+            position = 0;
+            limit = read;
+            // Ignorar la marca de orden de bytes al inicio del archivo
+            if (!started) {
+                started = true;
+                if (buffer[0] == '\uFEFF') {
+                    position = 1;
+                    return read();
+                }
+            }
+        }
+        return buffer[position++];
+    }
+}
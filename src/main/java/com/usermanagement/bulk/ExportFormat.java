@@ -0,0 +1,19 @@
+package com.usermanagement.bulk;
+
+/**
+ * Formatos de salida de la exportación masiva
+ */
+public enum ExportFormat {
+    CSV("csv"),
+    NDJSON("ndjson");
+    
+    private final String extension;
+    
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+}
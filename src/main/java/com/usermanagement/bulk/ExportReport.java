@@ -0,0 +1,75 @@
+package com.usermanagement.bulk;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado inmutable de una exportación masiva
+ */
+public final class ExportReport {
+    
+    private final long rows;
+    private final long bytesEncoded;
+    private final long bytesWritten;
+    private final long elapsedMillis;
+    private final List<Path> files;
+    
+    ExportReport(long rows, long bytesEncoded, long bytesWritten, long elapsedMillis, List<Path> files) {
+        this.rows = rows;
+        this.bytesEncoded = bytesEncoded;
+        this.bytesWritten = bytesWritten;
+        this.elapsedMillis = elapsedMillis;
+        this.files = Collections.unmodifiableList(files);
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    /**
+     * Bytes generados antes de la compresión
+     * @return bytes codificados
+     */
+    public long getBytesEncoded() {
+        return bytesEncoded;
+    }
+    
+    /**
+     * Bytes escritos en disco (tras la compresión, si está activa)
+     * @return bytes escritos
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public List<Path> getFiles() {
+        return files;
+    }
+    
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+    
+    public double getMegabytesPerSecond() {
+        double megabytes = bytesEncoded / (1024.0 * 1024.0);
+        return elapsedMillis == 0 ? megabytes : megabytes * 1000.0 / elapsedMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return "ExportReport{" +
+                "rows=" + rows +
+                ", bytesEncoded=" + bytesEncoded +
+                ", bytesWritten=" + bytesWritten +
+                ", files=" + files.size() +
+                ", elapsedMs=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                ", mbPerSecond=" + String.format("%.2f", getMegabytesPerSecond()) +
+                '}';
+    }
+}
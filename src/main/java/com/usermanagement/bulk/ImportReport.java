@@ -0,0 +1,67 @@
+package com.usermanagement.bulk;
+
+import java.nio.file.Path;
+
+/**
+ * Resultado inmutable de una importación masiva
+ */
+public final class ImportReport {
+    
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+    private final long elapsedMillis;
+    private final Path rejectsFile;
+    
+    ImportReport(long rowsRead, long imported, long rejected, long elapsedMillis, Path rejectsFile) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejectsFile = rejectsFile;
+    }
+    
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    /**
+     * Archivo con las filas rechazadas y el motivo de cada rechazo
+     * @return ruta del archivo de rechazos
+     */
+    public Path getRejectsFile() {
+        return rejectsFile;
+    }
+    
+    /**
+     * Velocidad de la importación
+     * @return filas leídas por segundo
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "rowsRead=" + rowsRead +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                ", elapsedMs=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                ", rejectsFile=" + rejectsFile +
+                '}';
+    }
+}
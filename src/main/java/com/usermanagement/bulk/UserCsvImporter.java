@@ -0,0 +1,450 @@
+package com.usermanagement.bulk;
+
+import com.usermanagement.config.TransactionManager;
+import com.usermanagement.dao.GenderDAO;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.Gender;
+import com.usermanagement.model.User;
+import com.usermanagement.service.UserServiceInterface;
+import com.usermanagement.service.UserValidator;
+import com.usermanagement.util.Constants;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Importación masiva de usuarios desde archivos CSV/TSV
+ * El archivo se lee en streaming y se inserta en lotes paralelos mediante UserServiceInterface.createUsers.
+ * El número de lotes en vuelo está acotado, por lo que la memoria usada no depende del tamaño del archivo.
+ * Las filas rechazadas se escriben, con el motivo, en un archivo de rechazos con las mismas columnas
+ * que el origen más reject_line y reject_reason, listo para corregirse y volver a importarse.
+ * Los lotes solo guardan el número de línea de cada fila: las filas que rechaza la base de datos se
+ * copian al archivo de rechazos en una segunda lectura del origen, al terminar la importación.
+ * Con un TransactionManager cada lote (verificaciones e inserciones) se ejecuta en una unidad de trabajo
+ * y se confirma con un solo COMMIT; sin él se confirma cada bloque de Constants.BATCH_CHUNK_SIZE filas.
+ *
+ * Columnas reconocidas en la cabecera (sin distinguir mayúsculas): name, age, gender_name o gender_id,
+ * user_name. Las columnas desconocidas se ignoran.
+ */
+public class UserCsvImporter {
+    
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_AGE = "age";
+    private static final String COLUMN_GENDER_NAME = "gender_name";
+    private static final String COLUMN_GENDER_ID = "gender_id";
+    private static final String COLUMN_USER_NAME = "user_name";
+    
+    private final UserServiceInterface userService;
+    private final GenderDAO genderDAO;
+    private final TransactionManager transactionManager;
+    private final int batchSize;
+    private final int parallelism;
+    
+    /**
+     * Constructor con los parámetros por defecto definidos en Constants
+     * @param userService servicio de usuarios que valida e inserta cada lote
+     * @param genderDAO DAO de géneros para resolver gender_name en memoria
+     */
+    public UserCsvImporter(UserServiceInterface userService, GenderDAO genderDAO) {
+        this(userService, genderDAO, Constants.IMPORT_BATCH_SIZE, Constants.IMPORT_PARALLELISM);
+    }
+    
+    /**
+     * Constructor con parámetros explícitos
+     * @param userService servicio de usuarios que valida e inserta cada lote
+     * @param genderDAO DAO de géneros para resolver gender_name en memoria
+     * @param batchSize filas por lote
+     * @param parallelism lotes insertados a la vez; se limita al tamaño del pool de conexiones
+     */
+    public UserCsvImporter(UserServiceInterface userService, GenderDAO genderDAO, int batchSize, int parallelism) {
+        this(userService, genderDAO, null, batchSize, parallelism);
+    }
+    
+    /**
+     * Constructor que confirma cada lote en una sola transacción, con los parámetros por defecto
+     * @param userService servicio de usuarios que valida e inserta cada lote
+     * @param genderDAO DAO de géneros para resolver gender_name en memoria
+     * @param transactionManager gestor de transacciones de la base de datos del servicio
+     */
+    public UserCsvImporter(UserServiceInterface userService, GenderDAO genderDAO, TransactionManager transactionManager) {
+        this(userService, genderDAO, transactionManager, Constants.IMPORT_BATCH_SIZE, Constants.IMPORT_PARALLELISM);
+    }
+    
+    /**
+     * Constructor con parámetros explícitos
+     * @param userService servicio de usuarios que valida e inserta cada lote
+     * @param genderDAO DAO de géneros para resolver gender_name en memoria
+     * @param transactionManager gestor de transacciones para confirmar cada lote de una vez, o null
+     * @param batchSize filas por lote
+     * @param parallelism lotes insertados a la vez; se limita al tamaño del pool de conexiones
+     */
+    public UserCsvImporter(UserServiceInterface userService, GenderDAO genderDAO, TransactionManager transactionManager,
+                           int batchSize, int parallelism) {
+        if (batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote y el paralelismo deben ser mayores que 0");
+        }
+        this.userService = userService;
+        this.genderDAO = genderDAO;
+        this.transactionManager = transactionManager;
+        this.batchSize = batchSize;
+        this.parallelism = Math.min(parallelism, Constants.DB_POOL_MAX_SIZE);
+    }
+    
+    /**
+     * Importa un archivo; los archivos .tsv se leen separados por tabuladores y el resto por comas
+     * @param source archivo de origen (UTF-8, con cabecera)
+     * @param rejectsFile archivo donde se escriben las filas rechazadas
+     * @return ImportReport con los totales y la velocidad de la importación
+     * @throws UserManagementException si el archivo no es válido o la base de datos deja de responder
+     */
+    public ImportReport importFile(Path source, Path rejectsFile) throws UserManagementException {
+        String fileName = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        return importFile(source, rejectsFile, fileName.endsWith(".tsv") ? '\t' : ',');
+    }
+    
+    /**
+     * Importa un archivo con el delimitador indicado
+     * @param source archivo de origen (UTF-8, con cabecera)
+     * @param rejectsFile archivo donde se escriben las filas rechazadas
+     * @param delimiter separador de campos
+     * @return ImportReport con los totales y la velocidad de la importación
+     * @throws UserManagementException si el archivo no es válido o la base de datos deja de responder
+     */
+    public ImportReport importFile(Path source, Path rejectsFile, char delimiter) throws UserManagementException {
+        Map<String, Integer> genderIdsByName = loadGenderIds();
+        long start = System.currentTimeMillis();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, newThreadFactory());
+        // Como máximo dos lotes por hilo (uno insertándose y otro en cola): memoria acotada
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicReference<UserManagementException> failure = new AtomicReference<>();
+        long rowsRead = 0;
+        
+        try (CsvReader reader = new CsvReader(
+                 new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8), delimiter);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)) {
+            
+            if (!reader.next()) {
+                throw UserManagementException.validationError("El archivo está vacío: " + source);
+            }
+            Columns columns = Columns.fromHeader(reader);
+            RejectWriter rejectWriter = new RejectWriter(rejects, delimiter, rejected);
+            rejectWriter.writeHeader(reader);
+            
+            Batch batch = new Batch(batchSize);
+            try {
+                while (failure.get() == null && reader.next()) {
+                    if (reader.isBlank()) {
+                        continue;
+                    }
+                    rowsRead++;
+                    try {
+                        batch.add(toUser(reader, columns, genderIdsByName), reader.getLineNumber());
+                    } catch (UserManagementException e) {
+                        rejectWriter.write(reader, e.getMessage());
+                    }
+                    
+                    if (batch.size() == batchSize) {
+                        submit(executor, inFlight, batch, rejectWriter, imported, failure);
+                        batch = new Batch(batchSize);
+                    }
+                    if (rowsRead % Constants.IMPORT_PROGRESS_INTERVAL == 0) {
+                        printProgress(rowsRead, start);
+                    }
+                }
+                if (batch.size() > 0 && failure.get() == null) {
+                    submit(executor, inFlight, batch, rejectWriter, imported, failure);
+                }
+            } finally {
+                awaitCompletion(executor);
+            }
+            rejectWriter.writeDeferred(source);
+        } catch (IOException e) {
+            throw new UserManagementException("Error al leer o escribir el archivo de importación: " + e.getMessage(),
+                UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        
+        ImportReport report = new ImportReport(rowsRead, imported.get(), rejected.get(),
+            System.currentTimeMillis() - start, rejectsFile);
+        System.out.println("Importación finalizada: " + report);
+        return report;
+    }
+    
+    /**
+     * Envía un lote a insertar; bloquea mientras haya demasiados lotes en vuelo
+     */
+    private void submit(ExecutorService executor, Semaphore inFlight, Batch batch, RejectWriter rejectWriter,
+                        AtomicLong imported, AtomicReference<UserManagementException> failure) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, UserManagementException.businessRuleViolation("Importación interrumpida"));
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                insertBatch(batch, rejectWriter, imported, failure);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+    
+    private void insertBatch(Batch batch, RejectWriter rejectWriter, AtomicLong imported,
+                             AtomicReference<UserManagementException> failure) {
+        try {
+            BatchResult result = transactionManager != null
+                ? transactionManager.execute(unit -> userService.createUsers(batch.users))
+                : userService.createUsers(batch.users);
+            imported.addAndGet(result.getSuccessCount());
+            for (Map.Entry<Integer, UserManagementException> entry : result.getFailures().entrySet()) {
+                int index = entry.getKey();
+                rejectWriter.defer(batch.lines[index], entry.getValue().getMessage());
+            }
+        } catch (UserManagementException e) {
+            // Un error de base de datos en un lote completo detiene la lectura; el lote queda en rechazos
+            failure.compareAndSet(null, e);
+            for (int i = 0; i < batch.size(); i++) {
+                rejectWriter.defer(batch.lines[i], e.getMessage());
+            }
+        }
+    }
+    
+    private User toUser(CsvReader reader, Columns columns, Map<String, Integer> genderIdsByName)
+            throws UserManagementException {
+        User user = new User();
+        user.setName(trimToNull(reader.getField(columns.name)));
+        user.setUserName(trimToNull(reader.getField(columns.userName)));
+        user.setAge(parseInteger(reader.getField(columns.age), COLUMN_AGE));
+        
+        if (columns.genderName >= 0) {
+            String genderName = trimToNull(reader.getField(columns.genderName));
+            if (genderName != null) {
+                Integer genderId = genderIdsByName.get(genderName.toLowerCase(Locale.ROOT));
+                if (genderId == null) {
+                    throw UserManagementException.validationError("Género no encontrado: " + genderName);
+                }
+                user.setGenderId(genderId);
+            }
+        } else {
+            Integer genderId = parseInteger(reader.getField(columns.genderId), COLUMN_GENDER_ID);
+            if (genderId != null && !genderIdsByName.containsValue(genderId)) {
+                throw UserManagementException.genderNotFound(genderId);
+            }
+            user.setGenderId(genderId);
+        }
+        
+        UserValidator.validateUser(user);
+        return user;
+    }
+    
+    /**
+     * Carga la tabla de géneros una sola vez para resolver nombres sin E/S por fila
+     */
+    private Map<String, Integer> loadGenderIds() throws UserManagementException {
+        Map<String, Integer> genderIdsByName = new HashMap<>();
+        for (Gender gender : genderDAO.getAllGenders()) {
+            genderIdsByName.put(gender.getGenderName().toLowerCase(Locale.ROOT), gender.getGenderId());
+        }
+        return genderIdsByName;
+    }
+    
+    private static Integer parseInteger(String value, String column) throws UserManagementException {
+        String trimmed = trimToNull(value);
+        if (trimmed == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+            throw UserManagementException.validationError("Valor no numérico en " + column + ": " + trimmed);
+        }
+    }
+    
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+    
+    private static void printProgress(long rowsRead, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("Importación: " + rowsRead + " filas leídas ("
+            + String.format("%.1f", rowsRead * 1000.0 / elapsed) + " filas/s)");
+    }
+    
+    private static void awaitCompletion(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, "user-import-" + counter.incrementAndGet());
+    }
+    
+    /**
+     * Posiciones de las columnas reconocidas en la cabecera
+     */
+    private static final class Columns {
+        private int name = -1;
+        private int age = -1;
+        private int genderName = -1;
+        private int genderId = -1;
+        private int userName = -1;
+        
+        static Columns fromHeader(CsvReader header) throws UserManagementException {
+            Columns columns = new Columns();
+            for (int i = 0; i < header.getFieldCount(); i++) {
+                switch (header.getField(i).trim().toLowerCase(Locale.ROOT)) {
+                    case COLUMN_NAME: columns.name = i; break;
+                    case COLUMN_AGE: columns.age = i; break;
+                    case COLUMN_GENDER_NAME: columns.genderName = i; break;
+                    case COLUMN_GENDER_ID: columns.genderId = i; break;
+                    case COLUMN_USER_NAME: columns.userName = i; break;
+                    default: break;
+                }
+            }
+            if (columns.name < 0 || columns.userName < 0) {
+                throw UserManagementException.validationError(
+                    "La cabecera debe contener las columnas " + COLUMN_NAME + " y " + COLUMN_USER_NAME);
+            }
+            return columns;
+        }
+    }
+    
+    /**
+     * Filas válidas pendientes de insertar, con su línea para localizar los rechazos
+     */
+    private static final class Batch {
+        private final List<User> users;
+        private final long[] lines;
+        
+        Batch(int capacity) {
+            this.users = new ArrayList<>(capacity);
+            this.lines = new long[capacity];
+        }
+        
+        void add(User user, long line) {
+            lines[users.size()] = line;
+            users.add(user);
+        }
+        
+        int size() {
+            return users.size();
+        }
+    }
+    
+    /**
+     * Escritor del archivo de rechazos, compartido por el hilo lector y los hilos de inserción
+     * Las filas rechazadas al leer se escriben al momento desde los campos del lector; las rechazadas
+     * por la base de datos se anotan por línea y se escriben con writeDeferred
+     */
+    private static final class RejectWriter {
+        private final Writer writer;
+        private final char delimiter;
+        private final AtomicLong rejected;
+        private final TreeMap<Long, String> deferred = new TreeMap<>();
+        
+        RejectWriter(Writer writer, char delimiter, AtomicLong rejected) {
+            this.writer = writer;
+            this.delimiter = delimiter;
+            this.rejected = rejected;
+        }
+        
+        synchronized void writeHeader(CsvReader header) throws IOException {
+            header.writeRecord(writer);
+            writer.write(delimiter);
+            writer.write("reject_line");
+            writer.write(delimiter);
+            writer.write("reject_reason");
+            writer.write('\n');
+        }
+        
+        /**
+         * Escribe el registro actual del lector como rechazado
+         */
+        synchronized void write(CsvReader record, String reason) {
+            rejected.incrementAndGet();
+            writeRecord(record, reason);
+        }
+        
+        /**
+         * Anota como rechazada la fila de una línea del origen, que se escribirá con writeDeferred
+         */
+        synchronized void defer(long line, String reason) {
+            rejected.incrementAndGet();
+            deferred.put(line, reason);
+        }
+        
+        /**
+         * Relee el origen y escribe las filas anotadas con defer, en orden de línea
+         * @param source archivo de origen
+         * @throws IOException si hay error de lectura
+         */
+        synchronized void writeDeferred(Path source) throws IOException {
+            if (deferred.isEmpty()) {
+                return;
+            }
+            try (CsvReader reader = new CsvReader(
+                     new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8), delimiter)) {
+                while (!deferred.isEmpty() && reader.next()) {
+                    String reason = deferred.remove(reader.getLineNumber());
+                    if (reason != null) {
+                        writeRecord(reader, reason);
+                    }
+                }
+            }
+            deferred.clear();
+        }
+        
+        private void writeRecord(CsvReader record, String reason) {
+            try {
+                record.writeRecord(writer);
+                writer.write(delimiter);
+                writer.write(Long.toString(record.getLineNumber()));
+                writer.write(delimiter);
+                writer.write('"');
+                writer.write(reason == null ? "" : reason.replace("\"", "\"\""));
+                writer.write('"');
+                writer.write('\n');
+            } catch (IOException e) {
+                System.err.println("Error al escribir el archivo de rechazos: " + e.getMessage());
+            }
+        }
+    }
+}
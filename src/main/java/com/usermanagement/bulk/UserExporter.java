@@ -0,0 +1,498 @@
+package com.usermanagement.bulk;
+
+import com.usermanagement.exception.UncheckedUserManagementException;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.User;
+import com.usermanagement.service.UserServiceInterface;
+import com.usermanagement.util.Constants;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación masiva de usuarios (con el nombre de su género) a CSV o NDJSON
+ * Las filas llegan en streaming desde el DAO, sin cargar la tabla en memoria, y cada campo se codifica
+ * directamente en UTF-8 sobre un ByteBuffer reutilizable que se vuelca a un FileChannel al llenarse.
+ * La ruta por fila no construye Strings intermedios.
+ * Admite compresión gzip y división en varios archivos por número de filas.
+ */
+public class UserExporter {
+    
+    private static final byte[] CSV_HEADER =
+        ascii("id,name,age,gender_id,gender_name,user_name,version,insert_date,update_date\n");
+    private static final byte[] JSON_ID = ascii("{\"id\":");
+    private static final byte[] JSON_NAME = ascii(",\"name\":");
+    private static final byte[] JSON_AGE = ascii(",\"age\":");
+    private static final byte[] JSON_GENDER_ID = ascii(",\"gender_id\":");
+    private static final byte[] JSON_GENDER_NAME = ascii(",\"gender_name\":");
+    private static final byte[] JSON_USER_NAME = ascii(",\"user_name\":");
+    private static final byte[] JSON_VERSION = ascii(",\"version\":");
+    private static final byte[] JSON_INSERT_DATE = ascii(",\"insert_date\":");
+    private static final byte[] JSON_UPDATE_DATE = ascii(",\"update_date\":");
+    private static final byte[] JSON_NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    
+    private final UserServiceInterface userService;
+    private final int bufferSize;
+    
+    /**
+     * Constructor con el tamaño de búfer definido en Constants
+     * @param userService servicio de usuarios del que se leen las filas
+     */
+    public UserExporter(UserServiceInterface userService) {
+        this(userService, Constants.EXPORT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Constructor con tamaño de búfer explícito
+     * @param userService servicio de usuarios del que se leen las filas
+     * @param bufferSize tamaño en bytes del búfer de codificación
+     */
+    public UserExporter(UserServiceInterface userService, int bufferSize) {
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("El búfer de exportación debe tener al menos 1024 bytes");
+        }
+        this.userService = userService;
+        this.bufferSize = bufferSize;
+    }
+    
+    /**
+     * Exporta todos los usuarios a un único archivo
+     * @param target archivo de destino
+     * @param format formato de salida
+     * @param gzip true para comprimir la salida
+     * @return ExportReport con los totales y la velocidad de la exportación
+     * @throws UserManagementException si hay error de base de datos o de escritura
+     */
+    public ExportReport export(Path target, ExportFormat format, boolean gzip) throws UserManagementException {
+        return export(target, format, gzip, 0);
+    }
+    
+    /**
+     * Exporta todos los usuarios, dividiendo la salida cada maxRowsPerFile filas
+     * Con división, los archivos se nombran base-00001.ext, base-00002.ext, ... junto a target
+     * @param target archivo de destino (o patrón de nombre si hay división)
+     * @param format formato de salida
+     * @param gzip true para comprimir la salida
+     * @param maxRowsPerFile filas por archivo (0 para un único archivo)
+     * @return ExportReport con los totales y la velocidad de la exportación
+     * @throws UserManagementException si hay error de base de datos o de escritura
+     */
+    public ExportReport export(Path target, ExportFormat format, boolean gzip, long maxRowsPerFile)
+            throws UserManagementException {
+        long start = System.currentTimeMillis();
+        Encoder encoder = new Encoder(ByteBuffer.allocate(bufferSize), format);
+        List<Path> files = new ArrayList<>();
+        long rows = 0;
+        long rowsInFile = 0;
+        ExportFile file = null;
+        
+        try (Stream<User> users = userService.streamAllUsers()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                if (file == null || (maxRowsPerFile > 0 && rowsInFile == maxRowsPerFile)) {
+                    if (file != null) {
+                        encoder.flushTo(file);
+                        file.close();
+                    }
+                    Path path = maxRowsPerFile > 0 ? partPath(target, format, gzip, files.size() + 1)
+                                                   : singlePath(target, gzip);
+                    file = ExportFile.open(path, gzip);
+                    files.add(path);
+                    encoder.setFile(file);
+                    encoder.writeHeader();
+                    rowsInFile = 0;
+                }
+                encoder.writeRow(user);
+                rows++;
+                rowsInFile++;
+                if (rows % Constants.EXPORT_PROGRESS_INTERVAL == 0) {
+                    printProgress(rows, encoder.getBytesEncoded(), start);
+                }
+            }
+            
+            if (file == null) {
+                // Tabla vacía: se genera igualmente un archivo (solo cabecera en CSV)
+                Path path = maxRowsPerFile > 0 ? partPath(target, format, gzip, 1) : singlePath(target, gzip);
+                file = ExportFile.open(path, gzip);
+                files.add(path);
+                encoder.setFile(file);
+                encoder.writeHeader();
+            }
+            encoder.flushTo(file);
+            file.close();
+            file = null;
+        } catch (UncheckedUserManagementException e) {
+            throw e.getCause();
+        } catch (IOException e) {
+            throw new UserManagementException("Error al escribir el archivo de exportación: " + e.getMessage(),
+                UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+        } finally {
+            if (file != null) {
+                file.closeQuietly();
+            }
+        }
+        
+        long bytesWritten = 0;
+        for (Path path : files) {
+            bytesWritten += path.toFile().length();
+        }
+        ExportReport report = new ExportReport(rows, encoder.getBytesEncoded(), bytesWritten,
+            System.currentTimeMillis() - start, files);
+        System.out.println("Exportación finalizada: " + report);
+        return report;
+    }
+    
+    private static Path singlePath(Path target, boolean gzip) {
+        String fileName = target.getFileName().toString();
+        return gzip && !fileName.endsWith(".gz") ? target.resolveSibling(fileName + ".gz") : target;
+    }
+    
+    private static Path partPath(Path target, ExportFormat format, boolean gzip, int part) {
+        String fileName = target.getFileName().toString();
+        int dot = fileName.indexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return target.resolveSibling(String.format("%s-%05d.%s%s", baseName, part,
+            format.getExtension(), gzip ? ".gz" : ""));
+    }
+    
+    private static void printProgress(long rows, long bytes, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("Exportación: " + rows + " filas, " + bytes + " bytes ("
+            + String.format("%.1f", rows * 1000.0 / elapsed) + " filas/s)");
+    }
+    
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Archivo de salida: FileChannel directo o, con compresión, gzip sobre el mismo canal
+     */
+    private static final class ExportFile implements Closeable {
+        private final FileChannel channel;
+        private final GZIPOutputStream gzip;
+        
+        private ExportFile(FileChannel channel, GZIPOutputStream gzip) {
+            this.channel = channel;
+            this.gzip = gzip;
+        }
+        
+        static ExportFile open(Path path, boolean compress) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try {
+                GZIPOutputStream gzip = compress
+                    ? new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024)
+                    : null;
+                return new ExportFile(channel, gzip);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        
+        /**
+         * Escribe el contenido del búfer (entre 0 y position) y lo deja vacío
+         */
+        void write(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            if (gzip != null) {
+                gzip.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+            }
+            channel.close();
+        }
+        
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el archivo de exportación: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Codificador de filas a UTF-8 sobre un búfer reutilizable
+     * Los números y fechas se escriben dígito a dígito y los textos carácter a carácter con su escapado
+     */
+    private static final class Encoder {
+        private final ByteBuffer buffer;
+        private final ExportFormat format;
+        private final byte[] digits = new byte[20];
+        private ExportFile file;
+        private long bytesEncoded;
+        
+        Encoder(ByteBuffer buffer, ExportFormat format) {
+            this.buffer = buffer;
+            this.format = format;
+        }
+        
+        void setFile(ExportFile file) {
+            this.file = file;
+        }
+        
+        long getBytesEncoded() {
+            return bytesEncoded + buffer.position();
+        }
+        
+        void flushTo(ExportFile target) throws IOException {
+            bytesEncoded += buffer.position();
+            target.write(buffer);
+        }
+        
+        void writeHeader() throws IOException {
+            if (format == ExportFormat.CSV) {
+                put(CSV_HEADER);
+            }
+        }
+        
+        void writeRow(User user) throws IOException {
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(user);
+            } else {
+                writeJsonRow(user);
+            }
+        }
+        
+        private void writeCsvRow(User user) throws IOException {
+            putInteger(user.getId());
+            put((byte) ',');
+            putCsvText(user.getName());
+            put((byte) ',');
+            putInteger(user.getAge());
+            put((byte) ',');
+            putInteger(user.getGenderId());
+            put((byte) ',');
+            putCsvText(user.getGenderName());
+            put((byte) ',');
+            putCsvText(user.getUserName());
+            put((byte) ',');
+            putInteger(user.getVersion());
+            put((byte) ',');
+            putDateTime(user.getInsertDate());
+            put((byte) ',');
+            putDateTime(user.getUpdateDate());
+            put((byte) '\n');
+        }
+        
+        private void writeJsonRow(User user) throws IOException {
+            put(JSON_ID);
+            putJsonInteger(user.getId());
+            put(JSON_NAME);
+            putJsonText(user.getName());
+            put(JSON_AGE);
+            putJsonInteger(user.getAge());
+            put(JSON_GENDER_ID);
+            putJsonInteger(user.getGenderId());
+            put(JSON_GENDER_NAME);
+            putJsonText(user.getGenderName());
+            put(JSON_USER_NAME);
+            putJsonText(user.getUserName());
+            put(JSON_VERSION);
+            putJsonInteger(user.getVersion());
+            put(JSON_INSERT_DATE);
+            putJsonDateTime(user.getInsertDate());
+            put(JSON_UPDATE_DATE);
+            putJsonDateTime(user.getUpdateDate());
+            put((byte) '}');
+            put((byte) '\n');
+        }
+        
+        private void putCsvText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                putUtf8(value);
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put((byte) '"');
+                }
+                i = putChar(value, i);
+            }
+            put((byte) '"');
+        }
+        
+        private void putJsonText(String value) throws IOException {
+            if (value == null) {
+                put(JSON_NULL);
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put((byte) '\\');
+                    put((byte) c);
+                } else if (c == '\n') {
+                    put((byte) '\\');
+                    put((byte) 'n');
+                } else if (c == '\r') {
+                    put((byte) '\\');
+                    put((byte) 'r');
+                } else if (c == '\t') {
+                    put((byte) '\\');
+                    put((byte) 't');
+                } else if (c < 0x20) {
+                    put((byte) '\\');
+                    put((byte) 'u');
+                    put((byte) '0');
+                    put((byte) '0');
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                } else {
+                    i = putChar(value, i);
+                }
+            }
+            put((byte) '"');
+        }
+        
+        private void putJsonInteger(Integer value) throws IOException {
+            if (value == null) {
+                put(JSON_NULL);
+            } else {
+                putLong(value);
+            }
+        }
+        
+        private void putJsonDateTime(LocalDateTime value) throws IOException {
+            if (value == null) {
+                put(JSON_NULL);
+                return;
+            }
+            put((byte) '"');
+            putDateTime(value);
+            put((byte) '"');
+        }
+        
+        private void putInteger(Integer value) throws IOException {
+            if (value != null) {
+                putLong(value);
+            }
+        }
+        
+        /**
+         * Escribe una fecha con el formato yyyy-MM-dd HH:mm:ss de MySQL
+         */
+        private void putDateTime(LocalDateTime value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            putPadded(value.getYear(), 4);
+            put((byte) '-');
+            putPadded(value.getMonthValue(), 2);
+            put((byte) '-');
+            putPadded(value.getDayOfMonth(), 2);
+            put((byte) ' ');
+            putPadded(value.getHour(), 2);
+            put((byte) ':');
+            putPadded(value.getMinute(), 2);
+            put((byte) ':');
+            putPadded(value.getSecond(), 2);
+        }
+        
+        private void putPadded(int value, int width) throws IOException {
+            for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+                put((byte) ('0' + (value / divisor) % 10));
+            }
+        }
+        
+        private void putLong(long value) throws IOException {
+            if (value < 0) {
+                put((byte) '-');
+                value = -value;
+            }
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            while (length > 0) {
+                put(digits[--length]);
+            }
+        }
+        
+        private void putUtf8(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                i = putChar(value, i);
+            }
+        }
+        
+        /**
+         * Codifica en UTF-8 el carácter en la posición indicada (o el par sustituto que empieza en ella)
+         * @return posición del último char consumido
+         */
+        private int putChar(String value, int index) throws IOException {
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+                put((byte) (0xF0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+                return index + 1;
+            } else if (Character.isSurrogate(c)) {
+                put((byte) '?');
+            } else {
+                put((byte) (0xE0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                put((byte) (0x80 | (c & 0x3F)));
+            }
+            return index;
+        }
+        
+        private void put(byte[] bytes) throws IOException {
+            if (buffer.remaining() < bytes.length) {
+                flushTo(file);
+            }
+            buffer.put(bytes);
+        }
+        
+        private void put(byte value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flushTo(file);
+            }
+            buffer.put(value);
+        }
+    }
+}
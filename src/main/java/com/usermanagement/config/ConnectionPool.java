@@ -0,0 +1,332 @@
+package com.usermanagement.config;
+
+import com.usermanagement.util.Constants;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool acotado de conexiones JDBC
+ * Reutiliza conexiones físicas, las valida al prestarlas, expulsa las inactivas
+ * y reporta las conexiones prestadas que no se devuelven a tiempo
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Crea un pool con los parámetros por defecto definidos en Constants
+     * @param url URL JDBC
+     * @param user usuario de la base de datos
+     * @param password contraseña de la base de datos
+     */
+    public ConnectionPool(String url, String user, String password) {
+        this(url, user, password, Constants.DB_POOL_MAX_SIZE, Constants.DB_POOL_MIN_IDLE,
+             Constants.DB_POOL_BORROW_TIMEOUT_MS, Constants.DB_POOL_IDLE_TIMEOUT_MS,
+             Constants.DB_POOL_LEAK_THRESHOLD_MS);
+    }
+
+    /**
+     * Crea un pool con parámetros explícitos
+     * @param url URL JDBC
+     * @param user usuario de la base de datos
+     * @param password contraseña de la base de datos
+     * @param maxSize número máximo de conexiones físicas
+     * @param minIdle conexiones inactivas que nunca se expulsan
+     * @param borrowTimeoutMillis espera máxima para obtener una conexión
+     * @param idleTimeoutMillis tiempo tras el cual una conexión inactiva se cierra
+     * @param leakThresholdMillis tiempo prestada tras el cual se reporta una fuga (0 desactiva)
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo del pool debe ser mayor que 0");
+        }
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.setProperty("user", user);
+        this.connectionProperties.setProperty("password", password);
+        // Sentencias preparadas en el servidor: la caché de StatementCache evita volver a prepararlas
+        this.connectionProperties.setProperty("useServerPrepStmts", "true");
+        // Los lotes de INSERT se reescriben como sentencias de varias filas
+        this.connectionProperties.setProperty("rewriteBatchedStatements", "true");
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+            Constants.DB_POOL_HOUSEKEEPING_INTERVAL_MS,
+            Constants.DB_POOL_HOUSEKEEPING_INTERVAL_MS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presta una conexión del pool, esperando como máximo borrowTimeoutMillis
+     * @return Connection cuyo close() la devuelve al pool
+     * @throws SQLException si se agota el tiempo de espera o no se puede abrir la conexión
+     */
+    public Connection borrow() throws SQLException {
+        return borrow(null);
+    }
+
+    /**
+     * Presta una conexión del pool con una acción a ejecutar cuando se devuelva
+     * @param onRelease acción que se ejecuta tras devolver la conexión al pool, o null
+     * @return Connection cuyo close() la devuelve al pool
+     * @throws SQLException si se agota el tiempo de espera o no se puede abrir la conexión
+     */
+    Connection borrow(Runnable onRelease) throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión del pool", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTimeoutException("No se obtuvo una conexión del pool en "
+                + borrowTimeoutMillis + " ms: " + getStats());
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.markBorrowed(leakThresholdMillis > 0 ? new Throwable("Conexión prestada aquí") : null);
+            active.add(pooled);
+            borrowCount.increment();
+            return pooled.newHandle(this, onRelease);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool; la invoca el proxy al cerrarse
+     * @param pooled conexión devuelta
+     */
+    void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (closed || pooled.isBroken() || !pooled.reset()) {
+                destroy(pooled);
+            } else {
+                pooled.markReturned();
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas del pool
+     * @return PoolStats con el estado actual
+     */
+    public PoolStats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new PoolStats(totalConnections.get(), active.size(), idleCount, waiters.get(),
+            borrowCount.sum(), timeoutCount.sum(), leakCount.sum(),
+            totalWaitNanos.sum(), maxWaitNanos.get(),
+            statementCacheHits.sum(), statementCacheMisses.sum(), statementCacheEvictions.sum());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Número de conexiones prestadas, sin construir una instantánea completa de métricas
+     * @return conexiones activas
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones físicas
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : toClose) {
+            destroy(pooled);
+        }
+
+        if (!active.isEmpty()) {
+            System.err.println("Cerrando pool con " + active.size() + " conexiones aún prestadas");
+            for (PooledConnection pooled : active) {
+                pooled.markBroken();
+                pooled.closePhysical();
+            }
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = pollIdle()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    /**
+     * Valida una conexión inactiva antes de prestarla
+     * Las conexiones usadas hace muy poco se consideran válidas sin hacer ping
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        long idleFor = System.currentTimeMillis() - pooled.getLastUsedAt();
+        if (idleFor > idleTimeoutMillis) {
+            return false;
+        }
+        if (idleFor < Constants.DB_POOL_VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return pooled.getPhysical().isValid(Constants.DB_POOL_VALIDATION_TIMEOUT_S);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        try {
+            StatementCache statementCache = new StatementCache(physical, Constants.DB_STATEMENT_CACHE_SIZE,
+                statementCacheHits, statementCacheMisses, statementCacheEvictions);
+            PooledConnection pooled = new PooledConnection(physical, statementCache);
+            totalConnections.incrementAndGet();
+            return pooled;
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Tarea periódica: expulsa conexiones inactivas y reporta posibles fugas
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        List<PooledConnection> evicted = new ArrayList<>();
+        synchronized (idle) {
+            // Las más antiguas quedan al final de la cola (LIFO)
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = iterator.next();
+                if (now - pooled.getLastUsedAt() > idleTimeoutMillis) {
+                    iterator.remove();
+                    evicted.add(pooled);
+                }
+            }
+        }
+        for (PooledConnection pooled : evicted) {
+            destroy(pooled);
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : active) {
+                if (!pooled.isLeakReported() && now - pooled.getBorrowedAt() > leakThresholdMillis) {
+                    pooled.markLeakReported();
+                    leakCount.increment();
+                    System.err.println("Posible fuga de conexión: prestada hace "
+                        + (now - pooled.getBorrowedAt()) + " ms sin devolverse");
+                    Throwable trace = pooled.getBorrowTrace();
+                    if (trace != null) {
+                        trace.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+}
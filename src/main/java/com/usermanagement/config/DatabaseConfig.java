@@ -2,20 +2,41 @@ package com.usermanagement.config;
 
 import com.usermanagement.util.Constants;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Clase de configuración para la conexión a la base de datos
- * Implementa el patrón Singleton para gestionar la conexión
+ * Implementa el patrón Singleton y administra un pool acotado de conexiones
+ * Con réplicas configuradas (Constants.DB_REPLICA_URLS) separa lecturas y escrituras: getConnection
+ * usa siempre el primario y getReadConnection reparte las lecturas entre las réplicas
  */
 public class DatabaseConfig {
     
     private static DatabaseConfig instance;
-    private Connection connection;
+    private final String url;
+    private volatile ConnectionPool pool;
+    private final ReplicaNode[] replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder readYourWritesReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final LongAdder replicaFailures = new LongAdder();
+    private final LongAdder replicaSaturations = new LongAdder();
     
     // Constructor privado para Singleton
-    private DatabaseConfig() {}
+    private DatabaseConfig(String url, String[] replicaUrls) {
+        this.url = url;
+        this.replicas = new ReplicaNode[replicaUrls.length];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = new ReplicaNode(replicaUrls[i]);
+        }
+    }
     
     /**
      * Obtiene la instancia única de DatabaseConfig (Singleton)
@@ -23,57 +44,238 @@ public class DatabaseConfig {
      */
     public static synchronized DatabaseConfig getInstance() {
         if (instance == null) {
-            instance = new DatabaseConfig();
+            instance = new DatabaseConfig(Constants.DB_URL, Constants.DB_REPLICA_URLS);
         }
         return instance;
     }
     
     /**
-     * Obtiene la conexión a la base de datos
+     * Crea una configuración independiente, con su propio pool, para otra base de datos (p. ej. un shard)
+     * Usa las mismas credenciales que la base de datos principal y no tiene réplicas
+     * @param url URL JDBC de la base de datos
+     * @return nueva DatabaseConfig; debe cerrarse con closeConnection
+     */
+    public static DatabaseConfig forUrl(String url) {
+        return new DatabaseConfig(url, new String[0]);
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    /**
+     * Obtiene una conexión del pool
+     * Cerrar la conexión la devuelve al pool en lugar de cerrarla físicamente.
+     * Si el hilo actual tiene una UnitOfWork abierta sobre esta configuración se devuelve la conexión
+     * de la unidad: el DAO participa en su transacción y su close/commit no la terminan.
+     * Con réplicas, devolver la conexión abre la ventana de lectura de lo escrito de la ReadSession del hilo:
+     * la escritura ya es visible en el primario y la ventana cuenta desde ese momento, no desde el préstamo
      * @return Connection objeto de conexión
      * @throws SQLException si hay error en la conexión
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName(Constants.DB_DRIVER);
-                connection = DriverManager.getConnection(
-                    Constants.DB_URL, 
-                    Constants.DB_USER, 
-                    Constants.DB_PASSWORD
-                );
-            } catch (ClassNotFoundException e) {
-                throw new SQLException(Constants.MSG_DB_CONNECTION_ERROR + "Driver no encontrado", e);
-            } catch (SQLException e) {
-                throw new SQLException(Constants.MSG_DB_CONNECTION_ERROR + e.getMessage(), e);
-            }
+        UnitOfWork unit = UnitOfWork.bound(this);
+        if (unit != null) {
+            return unit.participate();
+        }
+        if (replicas.length > 0) {
+            ReadSession session = ReadSession.current();
+            return borrow(() -> session.recordWrite(System.currentTimeMillis()));
         }
-        return connection;
+        return borrow();
     }
     
     /**
-     * Cierra la conexión a la base de datos
+     * Obtiene una conexión para una consulta de solo lectura
+     * Se elige la réplica disponible con menos conexiones prestadas (en empate, por turno rotatorio).
+     * Va al primario si no hay réplicas, si el hilo tiene una UnitOfWork abierta, si la ReadSession del hilo
+     * usó el primario dentro de Constants.DB_READ_YOUR_WRITES_WINDOW_MS (para leer lo que acaba de escribir)
+     * o si ninguna réplica entrega una conexión. Una réplica con el pool saturado se salta sin excluirla;
+     * solo un fallo de conexión la excluye. Las réplicas pueden ir por detrás del primario: las verificaciones
+     * previas a una escritura deben seguir usando getConnection
+     * @return Connection objeto de conexión
+     * @throws SQLException si hay error en la conexión
      */
-    public void closeConnection() {
-        if (connection != null) {
+    public Connection getReadConnection() throws SQLException {
+        UnitOfWork unit = UnitOfWork.bound(this);
+        if (unit != null) {
+            return unit.participate();
+        }
+        if (replicas.length == 0) {
+            return borrow();
+        }
+        
+        long now = System.currentTimeMillis();
+        if (ReadSession.current().isReadingOwnWrites(now)) {
+            readYourWritesReads.increment();
+            return borrow();
+        }
+        
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.length);
+        boolean[] tried = new boolean[replicas.length];
+        for (int attempt = 0; attempt < replicas.length; attempt++) {
+            int index = leastLoaded(start, now, tried);
+            if (index < 0) {
+                break;
+            }
+            tried[index] = true;
             try {
-                connection.close();
-                System.out.println("Conexión a la base de datos cerrada");
+                Connection connection = replicas[index].borrow();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLTimeoutException e) {
+                replicaSaturations.increment();
             } catch (SQLException e) {
-                System.err.println("Error al cerrar la conexión: " + e.getMessage());
+                replicaFailures.increment();
             }
         }
+        
+        fallbackReads.increment();
+        return borrow();
     }
     
     /**
-     * Verifica si la conexión está activa
-     * @return true si la conexión está activa, false en caso contrario
+     * Indica si las lecturas del hilo actual deben ver sus propias escrituras recientes
+     * Las búsquedas agrupadas (SingleFlight) no deben unirse a una consulta en curso en ese caso: la consulta
+     * pudo empezar en una réplica, o antes de la escritura
+     * @return true si hay réplicas y la ReadSession del hilo escribió dentro de la ventana
      */
-    public boolean isConnectionActive() {
+    public boolean isReadingOwnWrites() {
+        return replicas.length > 0 && ReadSession.current().isReadingOwnWrites(System.currentTimeMillis());
+    }
+    
+    /**
+     * Obtiene una conexión al primario para una consulta de solo lectura
+     * A diferencia de getConnection no cuenta como escritura: no abre la ventana de lectura de lo escrito
+     * del hilo. Si el hilo tiene una UnitOfWork abierta se devuelve la conexión de la unidad
+     * @return Connection objeto de conexión
+     * @throws SQLException si hay error en la conexión
+     */
+    public Connection getPrimaryReadConnection() throws SQLException {
+        UnitOfWork unit = UnitOfWork.bound(this);
+        if (unit != null) {
+            return unit.participate();
+        }
+        return borrow();
+    }
+    
+    /**
+     * Toma una conexión propia del pool, sin participar en la unidad de trabajo del hilo
+     * @return Connection objeto de conexión
+     * @throws SQLException si hay error en la conexión
+     */
+    Connection borrow() throws SQLException {
+        return borrow(null);
+    }
+    
+    private Connection borrow(Runnable onRelease) throws SQLException {
         try {
-            return connection != null && !connection.isClosed();
+            return getPool().borrow(onRelease);
         } catch (SQLException e) {
-            return false;
+            throw new SQLException(Constants.MSG_DB_CONNECTION_ERROR + e.getMessage(), e.getSQLState(), e);
+        }
+    }
+    
+    /**
+     * Abre la ventana de lectura de lo escrito de la ReadSession del hilo, si hay réplicas
+     * La invoca UnitOfWork al terminar su COMMIT exterior, cuando sus escrituras se hacen visibles
+     */
+    void recordWrite() {
+        if (replicas.length > 0) {
+            ReadSession.current().recordWrite(System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * Obtiene las métricas actuales del pool de conexiones
+     * @return PoolStats con conexiones activas, inactivas, hilos en espera y tiempos de espera
+     */
+    public PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+    
+    /**
+     * Obtiene las métricas del enrutamiento de lecturas y de los pools de las réplicas
+     * @return ReadRoutingStats con las lecturas por destino y las métricas de cada réplica
+     */
+    public ReadRoutingStats getReadRoutingStats() {
+        Map<String, PoolStats> replicaPools = new LinkedHashMap<>();
+        for (ReplicaNode replica : replicas) {
+            replicaPools.put(replica.getUrl(), replica.getStats());
+        }
+        return new ReadRoutingStats(replicaReads.sum(), readYourWritesReads.sum(), fallbackReads.sum(),
+                                    replicaFailures.sum(), replicaSaturations.sum(), Collections.unmodifiableMap(replicaPools));
+    }
+    
+    /**
+     * Cierra el pool y todas las conexiones a la base de datos
+     */
+    public synchronized void closeConnection() {
+        for (ReplicaNode replica : replicas) {
+            replica.close();
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            System.out.println("Conexión a la base de datos cerrada");
+        }
+    }
+    
+    /**
+     * Verifica si el pool de conexiones está activo
+     * @return true si la conexión está activa, false en caso contrario
+     */
+    public boolean isConnectionActive() {
+        ConnectionPool current = pool;
+        return current != null && !current.isClosed();
+    }
+    
+    /**
+     * Elige la réplica disponible con menos conexiones prestadas
+     * @param start posición desde la que se recorre, para repartir los empates por turno
+     * @param now instante actual en milisegundos
+     * @param tried réplicas ya intentadas en esta lectura, que se saltan
+     * @return índice de la réplica elegida, o -1 si todas están excluidas o ya intentadas
+     */
+    private int leastLoaded(int start, long now, boolean[] tried) {
+        int best = -1;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.length; i++) {
+            int index = (start + i) % replicas.length;
+            ReplicaNode replica = replicas[index];
+            if (tried[index] || !replica.isAvailable(now)) {
+                continue;
+            }
+            int load = replica.getLoad();
+            if (load < bestLoad) {
+                best = index;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Obtiene el pool, creándolo en el primer uso
+     * @return ConnectionPool activo
+     * @throws SQLException si el driver no está disponible
+     */
+    private ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+        synchronized (this) {
+            if (pool == null || pool.isClosed()) {
+                try {
+                    Class.forName(Constants.DB_DRIVER);
+                } catch (ClassNotFoundException e) {
+                    throw new SQLException("Driver no encontrado", e);
+                }
+                pool = new ConnectionPool(url, Constants.DB_USER, Constants.DB_PASSWORD);
+            }
+            return pool;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.usermanagement.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Conexión que un DAO recibe mientras participa en una UnitOfWork
+ * La transacción pertenece a la unidad: close() no devuelve la conexión al pool y la transacción
+ * local del DAO (setAutoCommit(false) ... commit/rollback) se delimita con un savepoint
+ */
+final class ParticipantConnection implements InvocationHandler {
+
+    private final UnitOfWork unit;
+    private final Connection connection;
+    private Savepoint local;
+    private boolean closed;
+
+    private ParticipantConnection(UnitOfWork unit, Connection connection) {
+        this.unit = unit;
+        this.connection = connection;
+    }
+
+    /**
+     * Crea el proxy participante de un préstamo del DAO
+     * @param unit unidad de trabajo a la que pertenece la transacción
+     * @param connection conexión del pool tomada por la unidad
+     * @return Connection participante
+     */
+    static Connection wrap(UnitOfWork unit, Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new ParticipantConnection(unit, connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    discardLocal();
+                }
+                return null;
+            case "isClosed":
+                return closed || unit.isCompleted();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ParticipantConnection[" + connection + "]";
+            default:
+                break;
+        }
+
+        if (closed || unit.isCompleted()) {
+            throw new SQLException("La conexión participante ya fue cerrada", "08003");
+        }
+
+        boolean noArgs = args == null || args.length == 0;
+        switch (method.getName()) {
+            case "setAutoCommit":
+                if ((Boolean) args[0]) {
+                    releaseLocal();
+                } else if (local == null) {
+                    local = connection.setSavepoint();
+                }
+                return null;
+            case "getAutoCommit":
+                return false;
+            case "commit":
+                // El trabajo del DAO queda dentro de la transacción de la unidad; empieza un nuevo tramo local
+                if (local != null) {
+                    connection.releaseSavepoint(local);
+                    local = connection.setSavepoint();
+                }
+                return null;
+            case "rollback":
+                if (!noArgs) {
+                    break;
+                }
+                if (local == null) {
+                    unit.markRollbackOnly();
+                    return null;
+                }
+                try {
+                    connection.rollback(local);
+                } catch (SQLException e) {
+                    // MySQL deshace la transacción completa ante un interbloqueo y el savepoint desaparece
+                    local = null;
+                    unit.markRollbackOnly();
+                    throw e;
+                }
+                return null;
+            case "setReadOnly":
+            case "setTransactionIsolation":
+                // No pueden cambiar con la transacción de la unidad en curso
+                return null;
+            case "abort":
+                unit.markRollbackOnly();
+                closed = true;
+                return null;
+            default:
+                break;
+        }
+
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Como al devolver una conexión al pool: lo que el DAO no confirmó en su tramo local se deshace
+     */
+    private void discardLocal() {
+        if (local == null || unit.isCompleted()) {
+            return;
+        }
+        try {
+            connection.rollback(local);
+        } catch (SQLException e) {
+            local = null;
+            unit.markRollbackOnly();
+            return;
+        }
+        releaseLocal();
+    }
+
+    private void releaseLocal() {
+        if (local == null) {
+            return;
+        }
+        try {
+            connection.releaseSavepoint(local);
+        } catch (SQLException e) {
+            unit.markRollbackOnly();
+        }
+        local = null;
+    }
+}
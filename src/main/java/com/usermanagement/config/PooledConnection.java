@@ -0,0 +1,247 @@
+package com.usermanagement.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Conexión física administrada por el pool
+ * Entrega a los DAOs un proxy de Connection cuyo close() devuelve la conexión al pool
+ */
+final class PooledConnection {
+
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final int initialIsolation;
+    private volatile long lastUsedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+    private volatile boolean broken;
+    private volatile boolean stateChanged;
+
+    PooledConnection(Connection physical, StatementCache statementCache) throws SQLException {
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.initialIsolation = physical.getTransactionIsolation();
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        leakReported = true;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    void markBroken() {
+        broken = true;
+    }
+
+    /**
+     * Marca la conexión como prestada
+     * @param trace traza del punto de préstamo (null si la detección de fugas está desactivada)
+     */
+    void markBorrowed(Throwable trace) {
+        borrowedAt = System.currentTimeMillis();
+        borrowTrace = trace;
+        leakReported = false;
+    }
+
+    /**
+     * Marca la conexión como devuelta al pool
+     */
+    void markReturned() {
+        lastUsedAt = System.currentTimeMillis();
+        borrowTrace = null;
+    }
+
+    /**
+     * Restablece el estado de sesión que el DAO pudo haber cambiado
+     * @return true si la conexión quedó lista para reutilizarse
+     */
+    boolean reset() {
+        if (!stateChanged) {
+            return true;
+        }
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            if (physical.getTransactionIsolation() != initialIsolation) {
+                physical.setTransactionIsolation(initialIsolation);
+            }
+            stateChanged = false;
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error al restablecer la conexión del pool: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cierra la conexión física sin propagar errores
+     */
+    void closePhysical() {
+        statementCache.clear();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexión física: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea un nuevo proxy para un préstamo concreto
+     * @param pool pool al que se devuelve la conexión al cerrar el proxy
+     * @param onRelease acción que se ejecuta tras devolver la conexión, o null
+     * @return Connection que envuelve la conexión física
+     */
+    Connection newHandle(ConnectionPool pool, Runnable onRelease) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new Handle(pool, onRelease));
+    }
+
+    /**
+     * Manejador del proxy: un préstamo, un cierre
+     */
+    private final class Handle implements InvocationHandler {
+
+        private final ConnectionPool pool;
+        private final Runnable onRelease;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Handle(ConnectionPool pool, Runnable onRelease) {
+            this.pool = pool;
+            this.onRelease = onRelease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        try {
+                            pool.release(PooledConnection.this);
+                        } finally {
+                            if (onRelease != null) {
+                                onRelease.run();
+                            }
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (closed.get()) {
+                throw new SQLException("La conexión ya fue devuelta al pool", "08003");
+            }
+
+            switch (method.getName()) {
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    stateChanged = true;
+                    break;
+                case "abort":
+                    broken = true;
+                    break;
+                default:
+                    break;
+            }
+
+            try {
+                Object result;
+                if (StatementCache.isCacheable(method, args)) {
+                    result = statementCache.prepare((Connection) proxy, (String) args[0],
+                        StatementCache.autoGeneratedKeys(args));
+                } else {
+                    result = method.invoke(physical, args);
+                }
+                if (result instanceof Statement) {
+                    applyScope((Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw markIfFatal(e.getCause());
+            } catch (SQLException e) {
+                throw markIfFatal(e);
+            }
+        }
+    }
+
+    /**
+     * Aplica el plazo y la cancelación del QueryScope del hilo; si ya venció, la sentencia se cierra
+     */
+    private static void applyScope(Statement statement) throws SQLException {
+        try {
+            QueryScope.apply(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Marca la conexión como rota si el error es de conexión
+     * @param error error producido por la conexión física
+     * @return el mismo error para relanzarlo
+     */
+    private Throwable markIfFatal(Throwable error) {
+        if (error instanceof SQLException && isFatal((SQLException) error)) {
+            broken = true;
+        }
+        return error;
+    }
+
+    /**
+     * Determina si un error indica que la conexión física ya no es utilizable
+     * @param e excepción SQL
+     * @return true si el SQLState es de la clase 08 (excepción de conexión)
+     */
+    private static boolean isFatal(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+}
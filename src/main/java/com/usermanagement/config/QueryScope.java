@@ -0,0 +1,109 @@
+package com.usermanagement.config;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plazo y cancelación de las consultas de una llamada
+ * Mientras está ligado a un hilo, cada sentencia que ese hilo crea sobre una conexión del pool recibe
+ * un queryTimeout con el tiempo restante y queda registrada para cancel(). Connector/J ignora la
+ * interrupción del hilo durante la lectura del socket: Statement.cancel y queryTimeout detienen la
+ * consulta en el servidor (KILL QUERY), liberando así la conexión y el turno de la llamada.
+ */
+public final class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean cancelled;
+    private boolean closed;
+
+    /**
+     * Crea un ámbito sin ligarlo a ningún hilo
+     * @param timeoutMillis tiempo límite contado desde ahora (0 sin límite)
+     */
+    public QueryScope(long timeoutMillis) {
+        this.deadlineNanos = timeoutMillis > 0
+            ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+            : 0;
+    }
+
+    /**
+     * Liga el ámbito al hilo actual hasta close()
+     * @return este ámbito
+     */
+    public QueryScope bind() {
+        CURRENT.set(this);
+        return this;
+    }
+
+    /**
+     * Cancela en el servidor las consultas en curso del ámbito; las sentencias posteriores fallan al crearse
+     */
+    public void cancel() {
+        List<Statement> running;
+        synchronized (this) {
+            if (cancelled || closed) {
+                return;
+            }
+            cancelled = true;
+            running = new ArrayList<>(statements);
+        }
+        for (Statement statement : running) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // La sentencia ya se cerró o la consulta había terminado
+            }
+        }
+    }
+
+    /**
+     * Desliga el ámbito del hilo; una cancelación posterior ya no afecta a sus sentencias
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            statements.clear();
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Aplica el ámbito del hilo actual, si lo hay, a una sentencia recién creada
+     * @param statement sentencia entregada por una conexión del pool
+     * @throws SQLException SQLTimeoutException si el ámbito ya venció o fue cancelado
+     */
+    static void apply(Statement statement) throws SQLException {
+        QueryScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.register(statement);
+        }
+    }
+
+    private void register(Statement statement) throws SQLException {
+        long remainingNanos = deadlineNanos != 0 ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (cancelled || remainingNanos <= 0) {
+                throw new SQLTimeoutException("Consulta cancelada o fuera de plazo");
+            }
+            statements.add(statement);
+        }
+        if (deadlineNanos != 0) {
+            // queryTimeout se expresa en segundos: se redondea hacia arriba
+            long seconds = Math.max(1, (TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 999) / 1000);
+            statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+        }
+    }
+}
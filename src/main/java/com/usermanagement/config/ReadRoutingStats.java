@@ -0,0 +1,86 @@
+package com.usermanagement.config;
+
+import java.util.Map;
+
+/**
+ * Instantánea inmutable del enrutamiento de lecturas entre el primario y las réplicas
+ */
+public final class ReadRoutingStats {
+
+    private final long replicaReads;
+    private final long readYourWritesReads;
+    private final long fallbackReads;
+    private final long replicaFailures;
+    private final long replicaSaturations;
+    private final Map<String, PoolStats> replicaPools;
+
+    ReadRoutingStats(long replicaReads, long readYourWritesReads, long fallbackReads, long replicaFailures,
+                     long replicaSaturations, Map<String, PoolStats> replicaPools) {
+        this.replicaReads = replicaReads;
+        this.readYourWritesReads = readYourWritesReads;
+        this.fallbackReads = fallbackReads;
+        this.replicaFailures = replicaFailures;
+        this.replicaSaturations = replicaSaturations;
+        this.replicaPools = replicaPools;
+    }
+
+    /**
+     * Lecturas servidas por una réplica
+     */
+    public long getReplicaReads() {
+        return replicaReads;
+    }
+
+    /**
+     * Lecturas enviadas al primario porque el hilo escribió dentro de la ventana de lectura de lo escrito
+     */
+    public long getReadYourWritesReads() {
+        return readYourWritesReads;
+    }
+
+    /**
+     * Lecturas enviadas al primario porque no había réplicas configuradas o disponibles
+     */
+    public long getFallbackReads() {
+        return fallbackReads;
+    }
+
+    /**
+     * Préstamos de conexión fallidos en réplicas (cada uno excluye temporalmente a la réplica)
+     */
+    public long getReplicaFailures() {
+        return replicaFailures;
+    }
+
+    /**
+     * Préstamos en réplicas que agotaron la espera por un pool saturado (no excluyen a la réplica)
+     */
+    public long getReplicaSaturations() {
+        return replicaSaturations;
+    }
+
+    /**
+     * Métricas del pool de cada réplica, por URL
+     */
+    public Map<String, PoolStats> getReplicaPools() {
+        return replicaPools;
+    }
+
+    public double getReplicaReadRatio() {
+        long total = replicaReads + readYourWritesReads + fallbackReads;
+        return total == 0 ? 0.0 : (double) replicaReads / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadRoutingStats{" +
+                "replicaReads=" + replicaReads +
+                ", readYourWritesReads=" + readYourWritesReads +
+                ", fallbackReads=" + fallbackReads +
+                ", replicaFailures=" + replicaFailures +
+                ", replicaSaturations=" + replicaSaturations +
+                ", replicaReadRatio=" + String.format("%.3f", getReplicaReadRatio()) +
+                ", replicaPools=" + replicaPools +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.usermanagement.config;
+
+import com.usermanagement.util.Constants;
+
+/**
+ * Sesión de lectura de lo escrito
+ * Guarda el instante en que se hizo visible la última escritura: al devolver una conexión al primario
+ * pedida para escribir o al confirmar una UnitOfWork de escritura. Mientras no pasen
+ * Constants.DB_READ_YOUR_WRITES_WINDOW_MS, getReadConnection envía las lecturas de la sesión al primario
+ * en lugar de a una réplica que quizá aún no recibió la escritura.
+ *
+ * Cada hilo tiene su propia sesión por defecto. Una llamada que continúa en otro hilo (p. ej. en
+ * AsyncExecutor) liga allí la sesión del llamador con bind(); un cliente cuyas peticiones pasan por
+ * varios hilos puede crear su propia sesión y ligarla en cada uno para conservar la lectura de lo escrito.
+ */
+public final class ReadSession {
+
+    private static final ThreadLocal<ReadSession> DEFAULT = ThreadLocal.withInitial(ReadSession::new);
+    private static final ThreadLocal<ReadSession> BOUND = new ThreadLocal<>();
+
+    private volatile long lastWriteAt;
+
+    /**
+     * Sesión del hilo actual: la ligada con bind() o, si no hay ninguna, la propia del hilo
+     * @return ReadSession en uso
+     */
+    public static ReadSession current() {
+        ReadSession bound = BOUND.get();
+        return bound != null ? bound : DEFAULT.get();
+    }
+
+    /**
+     * Liga la sesión al hilo actual hasta unbind()
+     */
+    public void bind() {
+        BOUND.set(this);
+    }
+
+    /**
+     * Desliga del hilo actual la sesión ligada; el hilo vuelve a usar su sesión propia
+     */
+    public static void unbind() {
+        BOUND.remove();
+    }
+
+    /**
+     * Indica si la sesión escribió hace menos de la ventana de lectura de lo escrito
+     * @param now instante actual en milisegundos
+     * @return true si sus lecturas deben ir al primario
+     */
+    public boolean isReadingOwnWrites(long now) {
+        return now - lastWriteAt < Constants.DB_READ_YOUR_WRITES_WINDOW_MS;
+    }
+
+    /**
+     * Registra una posible escritura ya visible en el primario
+     * @param now instante actual en milisegundos
+     */
+    void recordWrite(long now) {
+        lastWriteAt = now;
+    }
+}
@@ -0,0 +1,99 @@
+package com.usermanagement.config;
+
+import com.usermanagement.util.Constants;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+/**
+ * Réplica de lectura con su propio pool de conexiones y su estado de salud
+ * Una réplica que no acepta conexiones se excluye durante DB_REPLICA_RETRY_INTERVAL_MS; pasado ese tiempo
+ * la siguiente lectura la vuelve a probar. Agotar la espera de un pool saturado no la excluye
+ */
+final class ReplicaNode {
+
+    private final String url;
+    private volatile ConnectionPool pool;
+    private volatile long downUntil;
+
+    ReplicaNode(String url) {
+        this.url = url;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    /**
+     * Indica si la réplica puede recibir lecturas
+     * @param now instante actual en milisegundos
+     * @return true si no está excluida por un fallo reciente
+     */
+    boolean isAvailable(long now) {
+        return now >= downUntil;
+    }
+
+    /**
+     * Conexiones prestadas ahora mismo, usado para elegir la réplica menos cargada
+     */
+    int getLoad() {
+        ConnectionPool current = pool;
+        return current != null ? current.getActiveCount() : 0;
+    }
+
+    /**
+     * Presta una conexión de la réplica, creando el pool en el primer uso
+     * @return Connection cuyo close() la devuelve al pool de la réplica
+     * @throws SQLException SQLTimeoutException si el pool está saturado; otra SQLException si la réplica
+     *         no acepta conexiones, en cuyo caso queda excluida durante el intervalo de reintento
+     */
+    Connection borrow() throws SQLException {
+        try {
+            return getPool().borrow();
+        } catch (SQLException e) {
+            if (isConnectionFailure(e)) {
+                downUntil = System.currentTimeMillis() + Constants.DB_REPLICA_RETRY_INTERVAL_MS;
+                System.err.println("Réplica de lectura no disponible (" + url + "): " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Distingue un fallo de la réplica de los errores propios del pool
+     * La espera agotada (SQLTimeoutException), la interrupción y el pool cerrado los lanza el pool sin
+     * SQLState y no dicen nada de la salud de la réplica; los errores del driver al conectar sí lo traen
+     * (08xxx de comunicación, 28000 de credenciales...)
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        return !(e instanceof SQLTimeoutException) && e.getSQLState() != null;
+    }
+
+    PoolStats getStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    synchronized void close() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+        synchronized (this) {
+            if (pool == null || pool.isClosed()) {
+                pool = new ConnectionPool(url, Constants.DB_USER, Constants.DB_PASSWORD,
+                    Constants.DB_REPLICA_POOL_MAX_SIZE, Constants.DB_POOL_MIN_IDLE,
+                    Constants.DB_REPLICA_BORROW_TIMEOUT_MS, Constants.DB_POOL_IDLE_TIMEOUT_MS,
+                    Constants.DB_POOL_LEAK_THRESHOLD_MS);
+            }
+            return pool;
+        }
+    }
+}
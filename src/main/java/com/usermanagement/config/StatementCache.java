@@ -0,0 +1,280 @@
+package com.usermanagement.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física
+ * Las sentencias se identifican por el texto SQL y sobreviven a la devolución de la conexión al pool,
+ * de modo que las consultas repetidas reutilizan la sentencia ya preparada en el servidor
+ */
+final class StatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<Key, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param physical conexión física propietaria de las sentencias
+     * @param maxSize número máximo de sentencias en caché
+     * @param hits contador compartido de aciertos
+     * @param misses contador compartido de fallos
+     * @param evictions contador compartido de expulsiones
+     */
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Obtiene una sentencia preparada de la caché o la prepara y la almacena
+     * @param owner proxy de conexión que se devuelve desde getConnection()
+     * @param sql texto SQL
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS o Statement.NO_GENERATED_KEYS
+     * @return PreparedStatement cuyo close() la devuelve a la caché
+     * @throws SQLException si hay error al preparar la sentencia
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached;
+        synchronized (statements) {
+            cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                cached.inUse = true;
+                hits.increment();
+                return cached.newHandle(owner);
+            }
+        }
+
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // La sentencia en caché está en uso (p. ej. consultas anidadas): se usa una sin caché
+            CachedStatement uncached = new CachedStatement(statement);
+            uncached.evicted = true;
+            uncached.inUse = true;
+            return uncached.newHandle(owner);
+        }
+
+        CachedStatement created = new CachedStatement(statement);
+        created.inUse = true;
+        List<CachedStatement> toClose = new ArrayList<>();
+        synchronized (statements) {
+            statements.put(key, created);
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > maxSize && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                iterator.remove();
+                evictions.increment();
+                if (eldest.inUse) {
+                    eldest.evicted = true;
+                } else {
+                    toClose.add(eldest);
+                }
+            }
+        }
+        for (CachedStatement eldest : toClose) {
+            eldest.closePhysical();
+        }
+        return created.newHandle(owner);
+    }
+
+    /**
+     * Cierra todas las sentencias de la caché
+     */
+    void clear() {
+        List<CachedStatement> toClose;
+        synchronized (statements) {
+            toClose = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (CachedStatement cached : toClose) {
+            cached.closePhysical();
+        }
+    }
+
+    int size() {
+        synchronized (statements) {
+            return statements.size();
+        }
+    }
+
+    /**
+     * Clave de la caché: texto SQL y modo de claves generadas
+     */
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    /**
+     * Sentencia física en caché
+     * Guarda los valores iniciales de fetchSize, maxRows y queryTimeout para restaurarlos al devolverla:
+     * un préstamo que los cambia (p. ej. lectura en streaming con Integer.MIN_VALUE) no afecta al siguiente
+     */
+    private final class CachedStatement {
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        private PreparedStatement newHandle(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new Handle(owner));
+        }
+
+        /**
+         * Cierre lógico: limpia parámetros y ajustes del préstamo y deja la sentencia disponible en la caché
+         */
+        private void checkIn() {
+            boolean closeNow;
+            synchronized (statements) {
+                closeNow = evicted;
+            }
+            if (!closeNow) {
+                try {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    statement.clearWarnings();
+                    statement.setFetchSize(defaultFetchSize);
+                    statement.setMaxRows(defaultMaxRows);
+                    statement.setQueryTimeout(defaultQueryTimeout);
+                } catch (SQLException e) {
+                    synchronized (statements) {
+                        statements.values().remove(this);
+                    }
+                    closeNow = true;
+                }
+            }
+            synchronized (statements) {
+                inUse = false;
+                // Pudo ser expulsada mientras se restauraba
+                closeNow |= evicted;
+            }
+            if (closeNow) {
+                closePhysical();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar PreparedStatement en caché: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Manejador del proxy: un préstamo de la sentencia, un cierre
+         */
+        private final class Handle implements InvocationHandler {
+            private final Connection owner;
+            private boolean closed;
+
+            private Handle(Connection owner) {
+                this.owner = owner;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            checkIn();
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "getConnection":
+                        return owner;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + "]";
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("La sentencia ya fue cerrada");
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si una llamada a prepareStatement puede servirse desde la caché
+     * @param method método invocado en la conexión
+     * @param args argumentos de la invocación
+     * @return true para prepareStatement(String) y prepareStatement(String, int)
+     */
+    static boolean isCacheable(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName()) || args == null) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1
+            || (types.length == 2 && types[1] == int.class);
+    }
+
+    /**
+     * Modo de claves generadas de una invocación cacheable
+     */
+    static int autoGeneratedKeys(Object[] args) {
+        return args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+    }
+}
@@ -0,0 +1,105 @@
+package com.usermanagement.config;
+
+import com.usermanagement.exception.UserManagementException;
+import java.sql.SQLException;
+
+/**
+ * Punto de entrada de las unidades de trabajo (transacciones explícitas) sobre una DatabaseConfig
+ * Todas las llamadas a DAOs de esa configuración hechas dentro de la unidad, en el mismo hilo,
+ * comparten una conexión y una transacción.
+ *
+ * Uso:
+ * <pre>
+ * transactionManager.execute(unit -&gt; {
+ *     userService.createUsers(batch);
+ *     return null;
+ * });
+ * </pre>
+ */
+public class TransactionManager {
+
+    private final DatabaseConfig databaseConfig;
+
+    /**
+     * Constructor con inyección de la configuración de base de datos
+     * @param databaseConfig configuración cuyas conexiones participan en las unidades
+     */
+    public TransactionManager(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+    }
+
+    /**
+     * Trabajo a ejecutar dentro de una unidad de trabajo
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(UnitOfWork unit) throws UserManagementException;
+    }
+
+    /**
+     * Abre una unidad de trabajo de lectura y escritura ligada al hilo actual
+     * Si ya hay una abierta sobre la misma configuración, la nueva queda anidada en un savepoint
+     * @return UnitOfWork que debe confirmarse con commit() y cerrarse
+     * @throws UserManagementException si no se puede obtener la conexión
+     */
+    public UnitOfWork begin() throws UserManagementException {
+        return begin(false);
+    }
+
+    /**
+     * Abre una unidad de trabajo de solo lectura ligada al hilo actual
+     * MySQL no asigna ID de transacción ni prepara deshacer para las transacciones READ ONLY
+     * @return UnitOfWork que debe cerrarse
+     * @throws UserManagementException si no se puede obtener la conexión
+     */
+    public UnitOfWork beginReadOnly() throws UserManagementException {
+        return begin(true);
+    }
+
+    /**
+     * Ejecuta un trabajo en una unidad de trabajo: confirma si termina bien y deshace si lanza excepción
+     * @param work trabajo a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws UserManagementException error del trabajo, o si la transacción no se pudo confirmar
+     */
+    public <T> T execute(Work<T> work) throws UserManagementException {
+        return execute(work, false);
+    }
+
+    /**
+     * Ejecuta un trabajo en una unidad de trabajo de solo lectura
+     * @param work trabajo a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws UserManagementException error del trabajo o de base de datos
+     */
+    public <T> T executeReadOnly(Work<T> work) throws UserManagementException {
+        return execute(work, true);
+    }
+
+    /**
+     * Indica si el hilo actual tiene una unidad de trabajo abierta sobre esta configuración
+     * @return true si hay una unidad abierta
+     */
+    public boolean isActive() {
+        return UnitOfWork.isActive(databaseConfig);
+    }
+
+    private <T> T execute(Work<T> work, boolean readOnly) throws UserManagementException {
+        try (UnitOfWork unit = begin(readOnly)) {
+            T result = work.run(unit);
+            unit.commit();
+            return result;
+        }
+    }
+
+    private UnitOfWork begin(boolean readOnly) throws UserManagementException {
+        try {
+            return UnitOfWork.begin(databaseConfig, readOnly);
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al iniciar la transacción", e);
+        }
+    }
+}
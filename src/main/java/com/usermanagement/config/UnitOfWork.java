@@ -0,0 +1,337 @@
+package com.usermanagement.config;
+
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.util.Constants;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unidad de trabajo: una transacción sobre una única conexión ligada al hilo actual
+ * Mientras está abierta, DatabaseConfig.getConnection devuelve a los DAOs de esa configuración una
+ * conexión participante, de modo que varias llamadas a DAOs comparten la misma transacción y se
+ * confirman con un solo COMMIT.
+ *
+ * Las transacciones locales de los DAOs (setAutoCommit(false) ... commit/rollback) se convierten en
+ * savepoints dentro de la unidad: su commit no confirma nada y su rollback solo deshace su propio
+ * trabajo, por lo que la recuperación fila a fila de las operaciones por lotes sigue funcionando.
+ * Un rollback que no puede limitarse a un savepoint marca la unidad para deshacerse (rollback-only).
+ *
+ * Abrir una unidad cuando el hilo ya tiene otra sobre la misma configuración crea una unidad anidada
+ * respaldada por un savepoint de la exterior. Las unidades se completan en orden inverso al de apertura.
+ * Se crean con TransactionManager y deben cerrarse (try-with-resources); cerrar sin confirmar deshace.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final DatabaseConfig owner;
+    private final UnitOfWork root;
+    private final UnitOfWork previous;
+    private final Thread thread;
+    private final Connection connection;
+    private final Savepoint savepoint;
+    private final boolean readOnly;
+    private final List<Runnable> afterCompletion;
+    private final long startedAt;
+    private boolean rollbackOnly;
+    private boolean completed;
+
+    private UnitOfWork(DatabaseConfig owner, UnitOfWork root, Connection connection, Savepoint savepoint,
+                       boolean readOnly) {
+        this.owner = owner;
+        this.root = root != null ? root : this;
+        this.previous = CURRENT.get();
+        this.thread = Thread.currentThread();
+        this.connection = connection;
+        this.savepoint = savepoint;
+        this.readOnly = readOnly;
+        this.afterCompletion = root == null ? new ArrayList<>() : null;
+        this.startedAt = System.nanoTime();
+    }
+
+    /**
+     * Abre una unidad de trabajo y la liga al hilo actual
+     * @param owner configuración cuyas conexiones participan en la unidad
+     * @param readOnly true para indicar a MySQL que la transacción solo lee
+     * @return UnitOfWork abierta
+     * @throws SQLException si no se puede obtener o preparar la conexión
+     */
+    static UnitOfWork begin(DatabaseConfig owner, boolean readOnly) throws SQLException {
+        UnitOfWork outer = bound(owner);
+        UnitOfWork unit;
+        if (outer != null) {
+            outer.root.checkUsable();
+            unit = new UnitOfWork(owner, outer.root, outer.connection, outer.connection.setSavepoint(),
+                                  outer.root.readOnly);
+        } else {
+            Connection connection = owner.borrow();
+            try {
+                // READ ONLY debe fijarse antes de abrir la transacción para que MySQL lo aplique
+                if (readOnly) {
+                    connection.setReadOnly(true);
+                }
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            unit = new UnitOfWork(owner, null, connection, null, readOnly);
+        }
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * Busca la unidad abierta del hilo actual sobre una configuración
+     * @param owner configuración de la base de datos
+     * @return UnitOfWork más interna sobre esa configuración, o null si no hay ninguna
+     */
+    static UnitOfWork bound(DatabaseConfig owner) {
+        for (UnitOfWork unit = CURRENT.get(); unit != null; unit = unit.previous) {
+            if (unit.owner == owner) {
+                return unit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la unidad de trabajo más interna del hilo actual
+     * @return UnitOfWork abierta, o null si el hilo no tiene ninguna
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Indica si el hilo actual tiene una unidad de trabajo abierta sobre una configuración
+     * Los DAOs lo usan para no compartir lecturas entre hilos que podrían no ver los cambios de la unidad
+     * @param owner configuración de la base de datos
+     * @return true si hay una unidad abierta
+     */
+    public static boolean isActive(DatabaseConfig owner) {
+        return bound(owner) != null;
+    }
+
+    /**
+     * Crea una conexión participante para un DAO
+     * @return Connection cuyo close, commit y setAutoCommit no terminan la transacción de la unidad
+     * @throws SQLException si la unidad ya no es utilizable
+     */
+    Connection participate() throws SQLException {
+        root.checkUsable();
+        return ParticipantConnection.wrap(this, connection);
+    }
+
+    /**
+     * Confirma la unidad; en una unidad anidada libera su savepoint
+     * @throws UserManagementException si la unidad estaba marcada para deshacerse (se deshace) o falla el COMMIT
+     */
+    public void commit() throws UserManagementException {
+        checkCompletable();
+        if (rollbackOnly || root.rollbackOnly) {
+            rollback();
+            throw UserManagementException.businessRuleViolation(
+                "La transacción fue marcada para deshacerse y no se confirmó");
+        }
+        try {
+            if (savepoint != null) {
+                connection.releaseSavepoint(savepoint);
+            } else {
+                try {
+                    connection.commit();
+                } finally {
+                    // También si el COMMIT falla: su resultado es incierto y las lecturas deben ir al primario
+                    if (!readOnly) {
+                        owner.recordWrite();
+                    }
+                }
+                warnIfLongerThanSyncLag();
+            }
+        } catch (SQLException e) {
+            rollback();
+            throw UserManagementException.databaseError("Error al confirmar la transacción", e);
+        }
+        complete(true);
+    }
+
+    /**
+     * Avisa cuando una transacción de escritura confirma después del margen de la sincronización incremental:
+     * sus filas llevan la hora de sus sentencias y pueden quedar detrás de una marca de agua ya entregada
+     */
+    private void warnIfLongerThanSyncLag() {
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        if (!readOnly && elapsedMillis > Constants.SYNC_SAFETY_LAG_SECONDS * 1000L) {
+            System.err.println("Transacción confirmada tras " + elapsedMillis + " ms, más que el margen de "
+                + "sincronización (" + Constants.SYNC_SAFETY_LAG_PROPERTY + "=" + Constants.SYNC_SAFETY_LAG_SECONDS
+                + " s): sus cambios pueden no llegar al feed incremental");
+        }
+    }
+
+    /**
+     * Deshace la unidad; en una unidad anidada deshace hasta su savepoint sin afectar a la exterior
+     * @throws UserManagementException si falla el ROLLBACK
+     */
+    public void rollback() throws UserManagementException {
+        checkCompletable();
+        SQLException error = null;
+        try {
+            if (savepoint != null) {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+            } else {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            error = e;
+            root.rollbackOnly = true;
+        }
+        complete(false);
+        if (error != null) {
+            throw UserManagementException.databaseError("Error al deshacer la transacción", error);
+        }
+    }
+
+    /**
+     * Marca la unidad para que solo pueda deshacerse; commit() la deshará y lanzará error
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly || root.rollbackOnly;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isNested() {
+        return savepoint != null;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Crea un savepoint en la transacción de la unidad
+     * @param name nombre del savepoint
+     * @return Savepoint creado
+     * @throws UserManagementException si hay error de base de datos
+     */
+    public Savepoint setSavepoint(String name) throws UserManagementException {
+        checkCompletable();
+        try {
+            return connection.setSavepoint(name);
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al crear el savepoint " + name, e);
+        }
+    }
+
+    /**
+     * Deshace los cambios hechos después de un savepoint; el savepoint sigue vigente
+     * @param target savepoint creado con setSavepoint
+     * @throws UserManagementException si hay error de base de datos
+     */
+    public void rollbackToSavepoint(Savepoint target) throws UserManagementException {
+        checkCompletable();
+        try {
+            connection.rollback(target);
+        } catch (SQLException e) {
+            root.rollbackOnly = true;
+            throw UserManagementException.databaseError("Error al deshacer hasta el savepoint", e);
+        }
+    }
+
+    /**
+     * Libera un savepoint que ya no se necesita
+     * @param target savepoint creado con setSavepoint
+     * @throws UserManagementException si hay error de base de datos
+     */
+    public void releaseSavepoint(Savepoint target) throws UserManagementException {
+        checkCompletable();
+        try {
+            connection.releaseSavepoint(target);
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al liberar el savepoint", e);
+        }
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando termine la transacción exterior, se confirme o se deshaga
+     * Pensado para invalidar cachés sin exponer a otros hilos datos aún no confirmados
+     * @param action acción a ejecutar en el hilo que completa la unidad
+     */
+    public void afterCompletion(Runnable action) {
+        root.afterCompletion.add(action);
+    }
+
+    /**
+     * Cierra la unidad; si no se confirmó se deshace
+     */
+    @Override
+    public void close() {
+        if (completed) {
+            return;
+        }
+        try {
+            rollback();
+        } catch (UserManagementException e) {
+            System.err.println("Error al deshacer la unidad de trabajo: " + e.getMessage());
+        }
+    }
+
+    void markRollbackOnly() {
+        root.rollbackOnly = true;
+    }
+
+    private void checkUsable() throws SQLException {
+        if (completed) {
+            throw new SQLException("La unidad de trabajo ya fue completada", "25000");
+        }
+    }
+
+    private void checkCompletable() {
+        if (completed) {
+            throw new IllegalStateException("La unidad de trabajo ya fue completada");
+        }
+        if (Thread.currentThread() != thread) {
+            throw new IllegalStateException("La unidad de trabajo pertenece a otro hilo");
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Las unidades de trabajo deben completarse en orden inverso al de apertura");
+        }
+    }
+
+    private void complete(boolean committed) {
+        completed = true;
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        if (savepoint != null) {
+            return;
+        }
+
+        // Devolver la conexión al pool restablece autocommit y el modo de solo lectura
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error al devolver la conexión de la unidad de trabajo: " + e.getMessage());
+        }
+        for (Runnable action : afterCompletion) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error en una acción posterior a la transacción" +
+                    (committed ? "" : " deshecha") + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.usermanagement.controller;
 
+import com.usermanagement.model.Page;
 import com.usermanagement.model.User;
 import com.usermanagement.service.UserServiceInterface;
 import com.usermanagement.service.GenderServiceInterface;
@@ -47,6 +48,33 @@ public class UserController {
         }
     }
     
+    /**
+     * Obtiene y muestra una página de usuarios
+     * @param cursor cursor de la página anterior, o null para la primera página
+     * @param limit número máximo de usuarios por página
+     * @return cursor de la página siguiente, o null si no hay más páginas o hubo error
+     */
+    public String showUsersPage(String cursor, int limit) {
+        System.out.println("\n=== PÁGINA DE USUARIOS ===");
+        try {
+            Page<User> page = userService.getUsers(cursor, limit);
+            
+            if (page.isEmpty()) {
+                System.out.println("No hay usuarios en esta página.");
+            } else {
+                for (User user : page.getItems()) {
+                    displayUser(user);
+                }
+            }
+            return page.getNextCursor();
+        } catch (UserManagementException e) {
+            System.err.println("Error: " + e.getErrorDescription() + " - " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Error inesperado: " + e.getMessage());
+        }
+        return null;
+    }
+    
     /**
      * Obtiene y muestra un usuario por su ID
      * @param id ID del usuario a mostrar
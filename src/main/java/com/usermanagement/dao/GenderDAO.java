@@ -1,23 +1,38 @@
 package com.usermanagement.dao;
 
 import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.config.UnitOfWork;
 import com.usermanagement.exception.UserManagementException;
 import com.usermanagement.model.Gender;
 import com.usermanagement.util.Constants;
+import com.usermanagement.util.SingleFlight;
 import com.usermanagement.util.SqlUtils;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase DAO para el acceso a datos de la entidad Gender
+ * Puede mantener una instantánea en memoria de la tabla gender (ver refreshCache);
+ * mientras esté cargada, las lecturas y verificaciones de géneros no hacen E/S
  */
 public class GenderDAO {
     
     private final DatabaseConfig databaseConfig;
+    private volatile GenderSnapshot snapshot;
+    private final SingleFlight<Integer, Optional<Gender>> genderLookups =
+        new SingleFlight<>(found -> found.map(gender -> new Gender(gender.getGenderId(), gender.getGenderName())));
+    private ScheduledExecutorService refresher;
     
     /**
      * Constructor que recibe la configuración de base de datos por inyección
@@ -28,18 +43,31 @@ public class GenderDAO {
     }
     
     /**
-     * Obtiene todos los géneros de la base de datos
+     * Obtiene todos los géneros, desde la caché si está cargada
      * @return Lista de géneros
      * @throws UserManagementException si hay error al acceder a la base de datos
      */
     public List<Gender> getAllGenders() throws UserManagementException {
+        GenderSnapshot current = snapshot;
+        if (current != null) {
+            return current.getAll();
+        }
+        return loadAllGenders();
+    }
+    
+    /**
+     * Lee todos los géneros de la base de datos
+     * @return Lista de géneros
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    private List<Gender> loadAllGenders() throws UserManagementException {
         List<Gender> genders = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         
         try {
-            connection = databaseConfig.getConnection();
+            connection = databaseConfig.getReadConnection();
             statement = connection.prepareStatement(Constants.SQL_SELECT_ALL_GENDERS);
             resultSet = statement.executeQuery();
             
@@ -55,7 +83,7 @@ public class GenderDAO {
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al obtener géneros", e);
         } finally {
-            SqlUtils.closeResources(resultSet, statement);
+            SqlUtils.closeAllResources(resultSet, statement, connection);
         }
         
         return genders;
@@ -68,12 +96,43 @@ public class GenderDAO {
      * @throws UserManagementException si hay error al acceder a la base de datos o si el género no existe
      */
     public Gender getGenderById(int genderId) throws UserManagementException {
+        return findGenderById(genderId).orElseThrow(() -> UserManagementException.genderNotFound(genderId));
+    }
+    
+    /**
+     * Busca un género por su ID sin usar excepciones para el caso "no encontrado"
+     * Sin caché cargada, las búsquedas concurrentes del mismo ID comparten una sola consulta en curso
+     * (salvo dentro de una UnitOfWork o si el hilo está leyendo sus propias escrituras)
+     * @param genderId ID del género a buscar
+     * @return Optional con el género, o vacío si no existe
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Optional<Gender> findGenderById(int genderId) throws UserManagementException {
+        GenderSnapshot current = snapshot;
+        if (current != null) {
+            return Optional.ofNullable(current.get(genderId));
+        }
+        if (UnitOfWork.isActive(databaseConfig) || databaseConfig.isReadingOwnWrites()) {
+            return loadGenderById(genderId);
+        }
+        return genderLookups.execute(genderId, this::loadGenderById);
+    }
+    
+    /**
+     * Obtiene los contadores de agrupación de búsquedas por ID
+     * @return SingleFlight.Stats con las búsquedas totales y las agrupadas
+     */
+    public SingleFlight.Stats getLookupStats() {
+        return genderLookups.getStats();
+    }
+    
+    private Optional<Gender> loadGenderById(int genderId) throws UserManagementException {
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         
         try {
-            connection = databaseConfig.getConnection();
+            connection = databaseConfig.getReadConnection();
             statement = connection.prepareStatement(Constants.SQL_SELECT_GENDER_BY_ID);
             statement.setInt(1, genderId);
             resultSet = statement.executeQuery();
@@ -82,34 +141,179 @@ public class GenderDAO {
                 Gender gender = new Gender();
                 gender.setGenderId(resultSet.getInt("gender_id"));
                 gender.setGenderName(resultSet.getString("gender_name"));
-                return gender;
-            } else {
-                throw UserManagementException.genderNotFound(genderId);
+                return Optional.of(gender);
             }
+            return Optional.empty();
             
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al obtener género con ID: " + genderId, e);
         } finally {
-            SqlUtils.closeResources(resultSet, statement);
+            SqlUtils.closeAllResources(resultSet, statement, connection);
         }
     }
     
     /**
      * Verifica si existe un género con el ID especificado
+     * Usa una sonda SELECT 1 sobre la clave primaria sin leer ni mapear la fila
      * @param genderId ID del género a verificar
      * @return true si existe, false en caso contrario
      * @throws UserManagementException si hay error al acceder a la base de datos
      */
     public boolean genderExists(int genderId) throws UserManagementException {
-        try {
-            getGenderById(genderId);
-            return true;
-        } catch (UserManagementException e) {
-            if (e.getErrorType() == UserManagementException.ErrorType.GENDER_NOT_FOUND) {
-                return false;
+        GenderSnapshot current = snapshot;
+        if (current != null) {
+            return current.contains(genderId);
+        }
+        
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_EXISTS_GENDER_BY_ID)) {
+            
+            statement.setInt(1, genderId);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
             }
-            throw e;
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar existencia de género con ID: " + genderId, e);
         }
     }
     
-} 
\ No newline at end of file
+    /**
+     * Obtiene cuáles de los IDs de género indicados existen, con una consulta IN por bloque
+     * @param genderIds IDs de género a verificar
+     * @return conjunto de IDs existentes
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Set<Integer> findExistingGenderIds(Collection<Integer> genderIds) throws UserManagementException {
+        Set<Integer> existing = new HashSet<>();
+        if (genderIds.isEmpty()) {
+            return existing;
+        }
+        
+        GenderSnapshot current = snapshot;
+        if (current != null) {
+            for (Integer genderId : genderIds) {
+                if (genderId != null && current.contains(genderId)) {
+                    existing.add(genderId);
+                }
+            }
+            return existing;
+        }
+        
+        List<Integer> ids = new ArrayList<>(new HashSet<>(genderIds));
+        try (Connection connection = databaseConfig.getConnection()) {
+            for (int from = 0; from < ids.size(); from += Constants.IN_CLAUSE_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + Constants.IN_CLAUSE_CHUNK_SIZE, ids.size()));
+                int shape = SqlUtils.inClauseShape(chunk.size());
+                String sql = Constants.SQL_SELECT_EXISTING_GENDER_IDS_PREFIX + SqlUtils.placeholders(shape);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último valor
+                    for (int i = 0; i < shape; i++) {
+                        statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            existing.add(resultSet.getInt(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar existencia de géneros", e);
+        }
+        
+        return existing;
+    }
+    
+    /**
+     * Inserta o actualiza géneros conservando sus IDs, en una sola transacción
+     * Se usa para replicar la tabla de referencia gender desde la base de datos principal a cada shard
+     * @param genders géneros a copiar
+     * @throws UserManagementException si hay error de base de datos
+     */
+    public void upsertGenders(Collection<Gender> genders) throws UserManagementException {
+        if (genders.isEmpty()) {
+            return;
+        }
+        
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_UPSERT_GENDER)) {
+                for (Gender gender : genders) {
+                    statement.setInt(1, gender.getGenderId());
+                    statement.setString(2, gender.getGenderName());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al replicar géneros", e);
+        }
+        
+        invalidateCache();
+    }
+    
+    /**
+     * Recarga la instantánea en memoria de la tabla gender
+     * Si la recarga falla se conserva la instantánea anterior
+     * @throws UserManagementException si hay error al leer los géneros
+     */
+    public void refreshCache() throws UserManagementException {
+        List<Gender> genders = loadAllGenders();
+        GenderSnapshot loaded = GenderSnapshot.of(genders, Constants.GENDER_CACHE_MAX_ID);
+        if (loaded == null) {
+            System.err.println("Caché de géneros desactivada: existen IDs mayores que " + Constants.GENDER_CACHE_MAX_ID);
+        }
+        snapshot = loaded;
+    }
+    
+    /**
+     * Inicia la recarga periódica de la caché de géneros en un hilo en segundo plano
+     * @param periodMillis intervalo entre recargas en milisegundos
+     */
+    public synchronized void startPeriodicRefresh(long periodMillis) {
+        stopPeriodicRefresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gender-cache-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refreshCache();
+            } catch (UserManagementException e) {
+                System.err.println("Error al recargar la caché de géneros: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Detiene la recarga periódica de la caché de géneros
+     */
+    public synchronized void stopPeriodicRefresh() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+    
+    /**
+     * Descarta la instantánea en memoria; las lecturas vuelven a consultar la base de datos
+     */
+    public void invalidateCache() {
+        snapshot = null;
+    }
+    
+    /**
+     * Obtiene la instantánea actual de géneros
+     * @return GenderSnapshot, o null si la caché no está cargada
+     */
+    public GenderSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,112 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.Gender;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instantánea inmutable de la tabla gender
+ * Los géneros se guardan en un arreglo denso indexado por gender_id, por lo que
+ * las búsquedas por ID son un acceso directo al arreglo sin E/S
+ */
+public final class GenderSnapshot {
+
+    private final String[] namesById;
+    private final Map<String, Integer> idsByName;
+    private final int[] orderedIds;
+    private final long loadedAt;
+
+    private GenderSnapshot(String[] namesById, Map<String, Integer> idsByName, int[] orderedIds) {
+        this.namesById = namesById;
+        this.idsByName = idsByName;
+        this.orderedIds = orderedIds;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Construye una instantánea a partir de las filas leídas de la base de datos
+     * @param genders géneros en el orden de la consulta
+     * @param maxId mayor gender_id admitido para el arreglo denso
+     * @return GenderSnapshot, o null si algún ID supera maxId
+     */
+    static GenderSnapshot of(List<Gender> genders, int maxId) {
+        int highest = 0;
+        for (Gender gender : genders) {
+            highest = Math.max(highest, gender.getGenderId());
+        }
+        if (highest > maxId) {
+            return null;
+        }
+
+        String[] namesById = new String[highest + 1];
+        Map<String, Integer> idsByName = new HashMap<>();
+        int[] orderedIds = new int[genders.size()];
+        for (int i = 0; i < genders.size(); i++) {
+            Gender gender = genders.get(i);
+            namesById[gender.getGenderId()] = gender.getGenderName();
+            idsByName.put(gender.getGenderName().toLowerCase(Locale.ROOT), gender.getGenderId());
+            orderedIds[i] = gender.getGenderId();
+        }
+        return new GenderSnapshot(namesById, Collections.unmodifiableMap(idsByName), orderedIds);
+    }
+
+    /**
+     * Verifica si existe un género
+     * @param genderId ID del género
+     * @return true si existe en la instantánea
+     */
+    public boolean contains(int genderId) {
+        return genderId > 0 && genderId < namesById.length && namesById[genderId] != null;
+    }
+
+    /**
+     * Obtiene el nombre de un género
+     * @param genderId ID del género
+     * @return nombre del género, o null si no existe
+     */
+    public String getName(int genderId) {
+        return contains(genderId) ? namesById[genderId] : null;
+    }
+
+    /**
+     * Obtiene el ID de un género por su nombre, sin distinguir mayúsculas
+     * @param genderName nombre del género
+     * @return ID del género, o null si no existe
+     */
+    public Integer getIdByName(String genderName) {
+        return genderName == null ? null : idsByName.get(genderName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Obtiene una copia de un género
+     * @param genderId ID del género
+     * @return nuevo objeto Gender, o null si no existe
+     */
+    public Gender get(int genderId) {
+        return contains(genderId) ? new Gender(genderId, namesById[genderId]) : null;
+    }
+
+    /**
+     * Obtiene copias de todos los géneros en el orden de carga
+     * @return lista de géneros
+     */
+    public List<Gender> getAll() {
+        List<Gender> genders = new ArrayList<>(orderedIds.length);
+        for (int genderId : orderedIds) {
+            genders.add(new Gender(genderId, namesById[genderId]));
+        }
+        return genders;
+    }
+
+    public int size() {
+        return orderedIds.length;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
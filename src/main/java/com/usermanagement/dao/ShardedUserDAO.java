@@ -0,0 +1,671 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.exception.UncheckedUserManagementException;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.Gender;
+import com.usermanagement.model.SyncWatermark;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSearchCriteria;
+import com.usermanagement.model.UserTombstone;
+import com.usermanagement.util.SingleFlight;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * DAO de usuarios fragmentado (sharding) entre varias bases de datos
+ * Cada usuario vive en el shard hash(id) mod N. Los IDs y la unicidad de user_name los garantiza el
+ * directorio global (UserDirectoryDAO) de la base de datos principal, que también es la fuente de la
+ * tabla de referencia gender que se replica en cada shard (replicateGenders).
+ *
+ * Las operaciones por ID van a un solo shard. Los listados, búsquedas y la sincronización se consultan
+ * en todos los shards en paralelo y se combinan en el mismo orden que aplicaría una sola base de datos,
+ * por lo que la paginación por clave funciona igual que con UserDAO.
+ *
+ * Las escrituras de varios shards no son atómicas entre sí y una UnitOfWork solo abarca la base de datos
+ * sobre la que se abrió. El número de shards es fijo: cambiarlo requiere redistribuir los usuarios.
+ */
+public class ShardedUserDAO extends UserDAO implements AutoCloseable {
+
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+    private static final Comparator<User> BY_CHANGE =
+        Comparator.comparing(User::getUpdateDate).thenComparing(User::getId);
+    private static final Comparator<UserTombstone> BY_DELETION =
+        Comparator.comparing(UserTombstone::getDeletedAt).thenComparingInt(UserTombstone::getUserId);
+
+    private final UserDAO[] shards;
+    private final GenderDAO[] shardGenders;
+    private final UserDirectoryDAO directory;
+    private final GenderDAO genderDAO;
+    private final ExecutorService scatterExecutor;
+
+    /**
+     * Llamada a ejecutar en un shard
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    private interface ShardCall<T> {
+        T run(int shardIndex, UserDAO shard) throws UserManagementException;
+    }
+
+    /**
+     * Constructor con inyección de las configuraciones de base de datos
+     * @param directoryConfig base de datos principal: directorio global de usuarios y tabla gender de referencia
+     * @param shardConfigs una configuración por shard; su número y orden no deben cambiar
+     * @param genderDAO DAO de géneros de la base de datos principal
+     */
+    public ShardedUserDAO(DatabaseConfig directoryConfig, List<DatabaseConfig> shardConfigs, GenderDAO genderDAO) {
+        super(directoryConfig, genderDAO);
+        if (shardConfigs.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un shard");
+        }
+        this.shards = new UserDAO[shardConfigs.size()];
+        this.shardGenders = new GenderDAO[shardConfigs.size()];
+        for (int i = 0; i < shards.length; i++) {
+            // Los nombres de género se resuelven con la caché de la base de datos principal
+            shards[i] = new UserDAO(shardConfigs.get(i), genderDAO);
+            shardGenders[i] = new GenderDAO(shardConfigs.get(i));
+        }
+        this.directory = new UserDirectoryDAO(directoryConfig);
+        this.genderDAO = genderDAO;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scatterExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Calcula el shard de un usuario
+     * El ID se mezcla (finalizador de MurmurHash3) para que rangos de IDs consecutivos no dependan del módulo
+     * @param id ID del usuario
+     * @param shardCount número de shards
+     * @return índice del shard, entre 0 y shardCount - 1
+     */
+    public static int shardFor(int id, int shardCount) {
+        int hash = id;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Obtiene los contadores de agrupación de búsquedas por ID de cada shard
+     * @return lista con las estadísticas de cada shard, en orden de shard
+     */
+    public List<SingleFlight.Stats> getShardLookupStats() {
+        List<SingleFlight.Stats> stats = new ArrayList<>(shards.length);
+        for (UserDAO shard : shards) {
+            stats.add(shard.getLookupStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Copia la tabla gender de la base de datos principal a todos los shards
+     * Debe ejecutarse al arrancar y cada vez que cambian los géneros: la clave foránea de users
+     * en cada shard apunta a su propia copia
+     * @throws UserManagementException si algún shard no se pudo actualizar
+     */
+    public void replicateGenders() throws UserManagementException {
+        List<Gender> genders = genderDAO.getAllGenders();
+        scatter(allShards(), (index, shard) -> {
+            shardGenders[index].upsertGenders(genders);
+            return null;
+        });
+    }
+
+    // Lecturas
+
+    @Override
+    public List<User> getAllUsers() throws UserManagementException {
+        return merge(scatter(allShards(), (index, shard) -> shard.getAllUsers()), BY_ID, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Recorre todos los usuarios shard por shard; el orden es por shard y no global por ID
+     * Solo un shard a la vez mantiene una conexión ocupada
+     */
+    @Override
+    public Stream<User> streamAllUsers() throws UserManagementException {
+        return Arrays.stream(shards).flatMap(shard -> {
+            try {
+                return shard.streamAllUsers();
+            } catch (UserManagementException e) {
+                throw new UncheckedUserManagementException(e);
+            }
+        });
+    }
+
+    @Override
+    public List<User> getUsersAfter(int afterId, int limit) throws UserManagementException {
+        return merge(scatter(allShards(), (index, shard) -> shard.getUsersAfter(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public List<User> searchUsers(UserSearchCriteria criteria, User after, int limit) throws UserManagementException {
+        if (criteria.getSortField() == UserSearchCriteria.SortField.NAME) {
+            // El orden de u.name lo fija la colación de MySQL: se combina con su propia clave (WEIGHT_STRING)
+            List<NameKeyedUser> merged = merge(
+                scatter(allShards(), (index, shard) -> shard.searchUsersWithNameKeys(criteria, after, limit)),
+                nameOrder(criteria), limit);
+            List<User> users = new ArrayList<>(merged.size());
+            for (NameKeyedUser keyed : merged) {
+                users.add(keyed.user);
+            }
+            return users;
+        }
+        return merge(scatter(allShards(), (index, shard) -> shard.searchUsers(criteria, after, limit)),
+                     searchOrder(criteria), limit);
+    }
+
+    @Override
+    public List<User> getUsersChangedAfter(SyncWatermark after, int limit) throws UserManagementException {
+        return merge(scatter(allShards(), (index, shard) -> shard.getUsersChangedAfter(after, limit)), BY_CHANGE, limit);
+    }
+
+    @Override
+    public List<UserTombstone> getTombstonesAfter(SyncWatermark after, int limit) throws UserManagementException {
+        return merge(scatter(allShards(), (index, shard) -> shard.getTombstonesAfter(after, limit)), BY_DELETION, limit);
+    }
+
+    @Override
+    public int purgeTombstones(LocalDateTime before) throws UserManagementException {
+        int purged = 0;
+        for (int count : scatter(allShards(), (index, shard) -> shard.purgeTombstones(before))) {
+            purged += count;
+        }
+        return purged;
+    }
+
+    @Override
+    public Optional<User> findUserById(int id) throws UserManagementException {
+        return shard(id).findUserById(id);
+    }
+
+    @Override
+    public Optional<User> findUserByIdOnPrimary(int id) throws UserManagementException {
+        return shard(id).findUserByIdOnPrimary(id);
+    }
+
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) throws UserManagementException {
+        Map<Integer, List<Integer>> idsByShard = new LinkedHashMap<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id != null) {
+                idsByShard.computeIfAbsent(shardFor(id, shards.length), s -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<Integer, User> found = new LinkedHashMap<>();
+        for (Map<Integer, User> shardUsers : scatter(idsByShard.keySet(),
+                (index, shard) -> shard.getUsersByIds(idsByShard.get(index)))) {
+            found.putAll(shardUsers);
+        }
+
+        // Mismo orden que la entrada
+        Map<Integer, User> ordered = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            User user = found.get(id);
+            if (user != null) {
+                ordered.put(id, user);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public boolean userExists(int id) throws UserManagementException {
+        return shard(id).userExists(id);
+    }
+
+    @Override
+    public boolean userNameExists(String userName) throws UserManagementException {
+        return directory.findId(userName) != null;
+    }
+
+    @Override
+    public void verifyCreatable(String userName, Integer genderId) throws UserManagementException {
+        if (userNameExists(userName)) {
+            throw UserManagementException.userAlreadyExists(userName);
+        }
+        if (genderId != null && !genderDAO.genderExists(genderId)) {
+            throw UserManagementException.genderNotFound(genderId);
+        }
+    }
+
+    @Override
+    public Set<String> findExistingUserNames(Collection<String> userNames) throws UserManagementException {
+        return directory.findExistingUserNames(userNames);
+    }
+
+    // Escrituras
+
+    /**
+     * Crea un usuario: reserva el nombre y el ID en el directorio y escribe la fila en su shard
+     * Si la escritura en el shard falla se libera la reserva
+     */
+    @Override
+    public int createUser(User user) throws UserManagementException {
+        int id = directory.reserve(user.getUserName());
+        user.setId(id);
+        try {
+            shard(id).insertUserWithId(user);
+        } catch (UserManagementException e) {
+            user.setId(null);
+            directory.release(List.of(id));
+            throw e;
+        }
+        return id;
+    }
+
+    @Override
+    public void insertUserWithId(User user) throws UserManagementException {
+        shard(user.getId()).insertUserWithId(user);
+    }
+
+    /**
+     * Crea o actualiza un usuario identificado por su nombre de usuario
+     * Si el nombre ya está en el directorio, el upsert se hace en el shard del ID registrado
+     */
+    @Override
+    public int upsertUser(User user) throws UserManagementException {
+        try {
+            return createUser(user);
+        } catch (UserManagementException e) {
+            if (e.getErrorType() != UserManagementException.ErrorType.USER_ALREADY_EXISTS) {
+                throw e;
+            }
+        }
+
+        Integer id = directory.findId(user.getUserName());
+        if (id == null) {
+            // El usuario se eliminó entre la reserva fallida y la búsqueda
+            return createUser(user);
+        }
+        UserDAO shard = shard(id);
+        int upsertedId = shard.upsertUser(user);
+        if (upsertedId != id) {
+            // La fila del shard se eliminó a la vez: no se deja una fila sin entrada en el directorio
+            shard.deleteUser(upsertedId);
+            throw UserManagementException.userNotFound(id);
+        }
+        user.setId(id);
+        return id;
+    }
+
+    /**
+     * Crea varios usuarios: reserva todos los nombres en una transacción del directorio y escribe
+     * las filas agrupadas por shard, en paralelo y en una transacción por shard
+     */
+    @Override
+    public BatchResult createUsers(List<User> users, int chunkSize) throws UserManagementException {
+        if (chunkSize <= 0) {
+            throw UserManagementException.validationError("El tamaño de bloque debe ser mayor que 0");
+        }
+        BatchResult result = new BatchResult(users.size());
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, users.size());
+            createChunk(users, from, to, result);
+        }
+        System.out.println("Usuarios creados por lotes: " + result.getSuccessCount() + " de " + result.size());
+        return result;
+    }
+
+    private void createChunk(List<User> users, int from, int to, BatchResult result) throws UserManagementException {
+        List<User> chunk = users.subList(from, to);
+        BatchResult reserved = directory.reserveAll(chunk);
+
+        Map<Integer, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (reserved.isFailed(i)) {
+                result.addFailure(from + i, reserved.getFailures().get(i));
+            } else {
+                indexesByShard.computeIfAbsent(shardFor(chunk.get(i).getId(), shards.length), s -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<BatchResult> inserted;
+        try {
+            inserted = scatter(indexesByShard.keySet(), (index, shard) -> {
+                List<User> shardUsers = new ArrayList<>();
+                for (int i : indexesByShard.get(index)) {
+                    shardUsers.add(chunk.get(i));
+                }
+                return shard.insertUsersWithIds(shardUsers);
+            });
+        } catch (UserManagementException e) {
+            reconcileFailedChunk(chunk, indexesByShard);
+            throw e;
+        }
+
+        List<Integer> released = new ArrayList<>();
+        int shardPosition = 0;
+        for (List<Integer> indexes : indexesByShard.values()) {
+            BatchResult shardResult = inserted.get(shardPosition++);
+            for (int j = 0; j < indexes.size(); j++) {
+                int i = indexes.get(j);
+                User user = chunk.get(i);
+                if (shardResult.isFailed(j)) {
+                    released.add(user.getId());
+                    user.setId(null);
+                    result.addFailure(from + i, shardResult.getFailures().get(j));
+                } else {
+                    result.setGeneratedId(from + i, user.getId());
+                }
+            }
+        }
+        directory.release(released);
+    }
+
+    /**
+     * Concilia el directorio tras un reparto fallido, cuando ya no queda ningún shard escribiendo
+     * Los shards que confirmaron dejan su fila: esos usuarios conservan el ID. Los que no tienen fila liberan
+     * su reserva y vuelven a quedar sin ID. Si la comprobación también falla se conservan todas las reservas,
+     * para no reutilizar IDs que quizá tengan fila
+     */
+    private void reconcileFailedChunk(List<User> chunk, Map<Integer, List<Integer>> indexesByShard) {
+        List<Integer> reservedIds = new ArrayList<>();
+        for (List<Integer> indexes : indexesByShard.values()) {
+            for (int i : indexes) {
+                reservedIds.add(chunk.get(i).getId());
+            }
+        }
+
+        Map<Integer, User> existing;
+        try {
+            existing = getUsersByIds(reservedIds);
+        } catch (UserManagementException e) {
+            System.err.println("No se pudo conciliar el lote fallido; se conservan " + reservedIds.size()
+                + " reservas del directorio: " + e.getMessage());
+            for (List<Integer> indexes : indexesByShard.values()) {
+                for (int i : indexes) {
+                    chunk.get(i).setId(null);
+                }
+            }
+            return;
+        }
+
+        List<Integer> released = new ArrayList<>();
+        for (List<Integer> indexes : indexesByShard.values()) {
+            for (int i : indexes) {
+                User user = chunk.get(i);
+                if (!existing.containsKey(user.getId())) {
+                    released.add(user.getId());
+                    user.setId(null);
+                }
+            }
+        }
+        directory.release(released);
+    }
+
+    @Override
+    public BatchResult insertUsersWithIds(List<User> users) throws UserManagementException {
+        Map<Integer, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            indexesByShard.computeIfAbsent(shardFor(users.get(i).getId(), shards.length), s -> new ArrayList<>()).add(i);
+        }
+        BatchResult result = new BatchResult(users.size());
+        List<BatchResult> inserted = scatter(indexesByShard.keySet(), (index, shard) -> {
+            List<User> shardUsers = new ArrayList<>();
+            for (int i : indexesByShard.get(index)) {
+                shardUsers.add(users.get(i));
+            }
+            return shard.insertUsersWithIds(shardUsers);
+        });
+        copyResults(indexesByShard, inserted, result);
+        return result;
+    }
+
+    /**
+     * Actualiza un usuario; el nombre de usuario se cambia en el directorio bajo el mismo bloqueo
+     */
+    @Override
+    public void updateUser(User user) throws UserManagementException {
+        directory.rename(user.getId(), user.getUserName(), () -> {
+            shard(user.getId()).updateUser(user);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateUserChecked(User user) throws UserManagementException {
+        directory.rename(user.getId(), user.getUserName(), () -> {
+            shard(user.getId()).updateUserChecked(user);
+            return null;
+        });
+    }
+
+    @Override
+    public void patchUser(User user) throws UserManagementException {
+        if (!user.isDirty(User.Field.USER_NAME)) {
+            shard(user.getId()).patchUser(user);
+            return;
+        }
+        directory.rename(user.getId(), user.getUserName(), () -> {
+            shard(user.getId()).patchUser(user);
+            return null;
+        });
+    }
+
+    /**
+     * Actualiza parcialmente varios usuarios: una transacción por shard, en paralelo
+     * Las filas que cambian el nombre de usuario se actualizan una a una a través del directorio
+     */
+    @Override
+    public BatchResult patchUsers(List<User> users) throws UserManagementException {
+        BatchResult result = new BatchResult(users.size());
+        Map<Integer, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (!user.isDirty(User.Field.USER_NAME)) {
+                indexesByShard.computeIfAbsent(shardFor(user.getId(), shards.length), s -> new ArrayList<>()).add(i);
+                continue;
+            }
+            try {
+                patchUser(user);
+                result.setGeneratedId(i, user.getId());
+            } catch (UserManagementException e) {
+                result.addFailure(i, e);
+            }
+        }
+
+        List<BatchResult> patched = scatter(indexesByShard.keySet(), (index, shard) -> {
+            List<User> shardUsers = new ArrayList<>();
+            for (int i : indexesByShard.get(index)) {
+                shardUsers.add(users.get(i));
+            }
+            return shard.patchUsers(shardUsers);
+        });
+        copyResults(indexesByShard, patched, result);
+        return result;
+    }
+
+    /**
+     * Elimina un usuario de su shard y libera su nombre en el directorio
+     */
+    @Override
+    public void deleteUser(int id) throws UserManagementException {
+        shard(id).deleteUser(id);
+        directory.release(List.of(id));
+    }
+
+    /**
+     * Detiene los hilos de consulta en paralelo; las configuraciones de base de datos se cierran aparte
+     */
+    @Override
+    public void close() {
+        scatterExecutor.shutdown();
+    }
+
+    private UserDAO shard(int id) {
+        return shards[shardFor(id, shards.length)];
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> indexes = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Ejecuta una llamada en varios shards en paralelo
+     * El primer shard se atiende en el hilo llamador; si alguno falla se espera a que terminen los demás
+     * antes de propagar el error, de modo que ninguna escritura sigue en curso al volver
+     * @param shardIndexes shards a consultar
+     * @param call llamada a ejecutar en cada shard
+     * @param <T> tipo del resultado
+     * @return resultados en el orden de shardIndexes
+     * @throws UserManagementException el error del primer shard que falle
+     */
+    private <T> List<T> scatter(Collection<Integer> shardIndexes, ShardCall<T> call) throws UserManagementException {
+        List<Integer> indexes = new ArrayList<>(shardIndexes);
+        List<T> results = new ArrayList<>(indexes.size());
+        if (indexes.isEmpty()) {
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(indexes.size() - 1);
+        for (int i = 1; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            futures.add(scatterExecutor.submit(() -> call.run(index, shards[index])));
+        }
+
+        try {
+            T first;
+            try {
+                first = call.run(indexes.get(0), shards[indexes.get(0)]);
+            } catch (UserManagementException | RuntimeException e) {
+                awaitQuietly(futures);
+                throw e;
+            }
+            results.add(first);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserManagementException("Interrumpido esperando a los shards",
+                                              UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+        } catch (ExecutionException e) {
+            awaitQuietly(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof UserManagementException) {
+                throw (UserManagementException) cause;
+            }
+            throw new UserManagementException("Error inesperado en un shard",
+                                              UserManagementException.ErrorType.UNKNOWN_ERROR, cause);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Espera a que terminen las llamadas restantes de un reparto fallido, ignorando su resultado
+     * Al volver ningún shard sigue escribiendo: quien llama puede comprobar el estado final
+     */
+    private static void awaitQuietly(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException | CancellationException e) {
+                // El error del primer shard fallido es el que se propaga
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Combina los resultados ordenados de cada shard y conserva los primeros limit
+     */
+    private static <T> List<T> merge(List<List<T>> perShard, Comparator<? super T> order, int limit) {
+        List<T> merged = new ArrayList<>();
+        for (List<T> rows : perShard) {
+            merged.addAll(rows);
+        }
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    private static void copyResults(Map<Integer, List<Integer>> indexesByShard, List<BatchResult> shardResults,
+                                    BatchResult result) {
+        int shardPosition = 0;
+        for (List<Integer> indexes : indexesByShard.values()) {
+            BatchResult shardResult = shardResults.get(shardPosition++);
+            for (int j = 0; j < indexes.size(); j++) {
+                if (shardResult.isFailed(j)) {
+                    result.addFailure(indexes.get(j), shardResult.getFailures().get(j));
+                } else {
+                    result.setGeneratedId(indexes.get(j), shardResult.getGeneratedId(j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Orden de UserDAO.searchUsers: los NULL van primero en orden ascendente y al final en descendente,
+     * con el ID como desempate en el mismo sentido. El orden por nombre usa nameOrder
+     */
+    private static Comparator<User> searchOrder(UserSearchCriteria criteria) {
+        Comparator<User> order;
+        switch (criteria.getSortField()) {
+            case AGE:
+                order = Comparator.comparing(User::getAge, Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            case INSERT_DATE:
+                order = Comparator.comparing(User::getInsertDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            case UPDATE_DATE:
+                order = Comparator.comparing(User::getUpdateDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            default:
+                order = BY_ID;
+                break;
+        }
+        order = order.thenComparing(BY_ID);
+        return criteria.isDescending() ? order.reversed() : order;
+    }
+
+    /**
+     * Orden de UserDAO.searchUsers por nombre: compara WEIGHT_STRING(u.name) byte a byte sin signo,
+     * que es como MySQL compara u.name con la colación de la columna
+     */
+    private static Comparator<NameKeyedUser> nameOrder(UserSearchCriteria criteria) {
+        Comparator<NameKeyedUser> order = Comparator.<NameKeyedUser, byte[]>comparing(keyed -> keyed.nameKey,
+                Comparator.nullsFirst(Arrays::compareUnsigned))
+            .thenComparing(keyed -> keyed.user, BY_ID);
+        return criteria.isDescending() ? order.reversed() : order;
+    }
+}
@@ -1,9 +1,16 @@
 package com.usermanagement.dao;
 
 import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.config.UnitOfWork;
+import com.usermanagement.exception.UncheckedUserManagementException;
 import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.SyncWatermark;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserSearchCriteria;
+import com.usermanagement.model.UserTombstone;
 import com.usermanagement.util.Constants;
+import com.usermanagement.util.SingleFlight;
 import com.usermanagement.util.SqlUtils;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -11,22 +18,75 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Clase DAO para el acceso a datos de la entidad User
  */
 public class UserDAO {
     
+    // Formas de UPDATE parcial: una por combinación de campos (bit = ordinal de User.Field),
+    // con y sin compare-and-set de versión. Se construyen una sola vez para reutilizar sentencias
+    private static final String[] PATCH_SQL = buildPatchStatements();
+    
+    // Formas de búsqueda: una por combinación de filtros, orden, dirección y tipo de posición (keyset).
+    // El conjunto es finito (los rangos siempre enlazan sus dos extremos) y cada forma se construye una vez
+    private static final Map<Integer, String> SEARCH_SQL = new ConcurrentHashMap<>();
+    private static final int SEARCH_NAME_PREFIX = 1;
+    private static final int SEARCH_USER_NAME = 1 << 1;
+    private static final int SEARCH_AGE = 1 << 2;
+    private static final int SEARCH_GENDER = 1 << 3;
+    private static final int SEARCH_INSERT_DATE = 1 << 4;
+    private static final int SEARCH_UPDATE_DATE = 1 << 5;
+    private static final int KEYSET_NONE = 0;
+    private static final int KEYSET_AFTER_VALUE = 1;
+    private static final int KEYSET_AFTER_NULL = 2;
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
     private final DatabaseConfig databaseConfig;
+    private final GenderDAO genderDAO;
+    // Cada llamada agrupada recibe su propia copia del usuario, que es mutable
+    private final SingleFlight<Integer, Optional<User>> userLookups =
+        new SingleFlight<>(found -> found.map(User::new));
+    // Búsquedas contra el primario, separadas para que nunca se unan a una lectura de réplica
+    private final SingleFlight<Integer, Optional<User>> primaryLookups =
+        new SingleFlight<>(found -> found.map(User::new));
     
     /**
      * Constructor que recibe la configuración de base de datos por inyección
      * @param databaseConfig configuración de la base de datos
      */
     public UserDAO(DatabaseConfig databaseConfig) {
+        this(databaseConfig, null);
+    }
+    
+    /**
+     * Constructor que además recibe el DAO de géneros
+     * Mientras la caché de géneros esté cargada, las lecturas omiten el LEFT JOIN con gender
+     * y resuelven gender_name desde la instantánea en memoria
+     * @param databaseConfig configuración de la base de datos
+     * @param genderDAO DAO de géneros (puede ser null)
+     */
+    public UserDAO(DatabaseConfig databaseConfig, GenderDAO genderDAO) {
         this.databaseConfig = databaseConfig;
+        this.genderDAO = genderDAO;
     }
     
     /**
@@ -42,13 +102,16 @@ public class UserDAO {
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         
+        GenderSnapshot genders = genderSnapshot();
+        
         try {
-            connection = databaseConfig.getConnection();
-            statement = connection.prepareStatement(Constants.SQL_SELECT_ALL_USERS);
+            connection = databaseConfig.getReadConnection();
+            statement = connection.prepareStatement(
+                genders != null ? Constants.SQL_SELECT_ALL_USERS_NO_JOIN : Constants.SQL_SELECT_ALL_USERS);
             resultSet = statement.executeQuery();
             
             while (resultSet.next()) {
-                User user = mapResultSetToUser(resultSet);
+                User user = mapResultSetToUser(resultSet, genders);
                 users.add(user);
             }
             
@@ -57,7 +120,7 @@ public class UserDAO {
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al obtener usuarios", e);
         } finally {
-            SqlUtils.closeResources(resultSet, statement);
+            SqlUtils.closeAllResources(resultSet, statement, connection);
         }
        
          
@@ -65,6 +128,279 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * Recorre todos los usuarios fila a fila sin cargarlos en memoria
+     * Usa el modo streaming de MySQL (fetch size Integer.MIN_VALUE), por lo que la conexión queda
+     * ocupada hasta cerrar el Stream. El Stream DEBE cerrarse (try-with-resources)
+     * @return Stream de usuarios; los errores de lectura se lanzan como UncheckedUserManagementException
+     * @throws UserManagementException si hay error al ejecutar la consulta
+     */
+    public Stream<User> streamAllUsers() throws UserManagementException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        GenderSnapshot genders = genderSnapshot();
+        
+        try {
+            connection = databaseConfig.getReadConnection();
+            statement = connection.prepareStatement(
+                genders != null ? Constants.SQL_SELECT_ALL_USERS_NO_JOIN : Constants.SQL_SELECT_ALL_USERS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            SqlUtils.closeAllResources(resultSet, statement, connection);
+            throw UserManagementException.databaseError("Error al iniciar el recorrido de usuarios", e);
+        }
+        
+        UserSpliterator spliterator = new UserSpliterator(resultSet, genders);
+        Connection streamConnection = connection;
+        PreparedStatement streamStatement = statement;
+        ResultSet streamResultSet = resultSet;
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            if (!spliterator.exhausted) {
+                // Cierre anticipado: se cancela la consulta para no drenar el resto de filas
+                try {
+                    streamStatement.cancel();
+                } catch (SQLException e) {
+                    System.err.println("Error al cancelar el recorrido de usuarios: " + e.getMessage());
+                }
+            }
+            SqlUtils.closeAllResources(streamResultSet, streamStatement, streamConnection);
+        });
+    }
+    
+    /**
+     * Recorre todos los usuarios entregándolos uno a uno a un consumidor
+     * @param consumer consumidor invocado por cada usuario
+     * @throws UserManagementException si hay error al leer los usuarios
+     */
+    public void forEachUser(Consumer<? super User> consumer) throws UserManagementException {
+        try (Stream<User> users = streamAllUsers()) {
+            users.forEach(consumer);
+        } catch (UncheckedUserManagementException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Obtiene una página de usuarios ordenada por ID usando paginación por clave (keyset)
+     * El coste no depende de la posición de la página porque la consulta busca directamente en el índice primario
+     * @param afterId ID del último usuario de la página anterior (0 para la primera página)
+     * @param limit número máximo de usuarios a devolver
+     * @return Lista de usuarios con ID mayor que afterId
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public List<User> getUsersAfter(int afterId, int limit) throws UserManagementException {
+        List<User> users = new ArrayList<>(limit);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        GenderSnapshot genders = genderSnapshot();
+        
+        try {
+            connection = databaseConfig.getReadConnection();
+            statement = connection.prepareStatement(
+                genders != null ? Constants.SQL_SELECT_USERS_PAGE_NO_JOIN : Constants.SQL_SELECT_USERS_PAGE);
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                users.add(mapResultSetToUser(resultSet, genders));
+            }
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al obtener página de usuarios después del ID: " + afterId, e);
+        } finally {
+            SqlUtils.closeAllResources(resultSet, statement, connection);
+        }
+        
+        return users;
+    }
+    
+    /**
+     * Busca usuarios por criterios con paginación por clave (keyset) sobre (columna de orden, id)
+     * Cada filtro y cada orden están respaldados por un índice secundario de users
+     * @param criteria criterios de búsqueda y orden
+     * @param after última fila de la página anterior (con el ID y el valor de la columna de orden), o null
+     * @param limit número máximo de usuarios a devolver
+     * @return Lista de usuarios en el orden pedido
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public List<User> searchUsers(UserSearchCriteria criteria, User after, int limit) throws UserManagementException {
+        return searchUsers(criteria, after, limit, null);
+    }
+    
+    /**
+     * Variante de searchUsers que devuelve también WEIGHT_STRING(u.name) de cada fila
+     * Es la clave binaria con la que MySQL ordena u.name según la colación de la columna: comparada byte a byte
+     * sin signo permite combinar páginas de varias bases de datos en el mismo orden que ORDER BY u.name
+     * @param criteria criterios de búsqueda y orden
+     * @param after última fila de la página anterior, o null
+     * @param limit número máximo de usuarios a devolver
+     * @return Lista de usuarios con su clave de orden por nombre (null si el nombre es NULL)
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    List<NameKeyedUser> searchUsersWithNameKeys(UserSearchCriteria criteria, User after, int limit)
+            throws UserManagementException {
+        List<byte[]> nameKeys = new ArrayList<>(limit);
+        List<User> users = searchUsers(criteria, after, limit, nameKeys);
+        List<NameKeyedUser> keyed = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            keyed.add(new NameKeyedUser(users.get(i), nameKeys.get(i)));
+        }
+        return keyed;
+    }
+    
+    private List<User> searchUsers(UserSearchCriteria criteria, User after, int limit, List<byte[]> nameKeys)
+            throws UserManagementException {
+        UserSearchCriteria.SortField sortField = criteria.getSortField();
+        Object afterValue = after != null ? sortValue(after, sortField) : null;
+        int keyset = after == null ? KEYSET_NONE : afterValue != null ? KEYSET_AFTER_VALUE : KEYSET_AFTER_NULL;
+        int filters = searchFilters(criteria);
+        GenderSnapshot genders = genderSnapshot();
+        boolean withNameKey = nameKeys != null;
+        
+        int key = filters | sortField.ordinal() << 6 | (criteria.isDescending() ? 1 : 0) << 9
+                  | keyset << 10 | (genders != null ? 1 : 0) << 12 | (withNameKey ? 1 : 0) << 13;
+        String sql = SEARCH_SQL.computeIfAbsent(key, k -> buildSearchStatement(filters, sortField,
+            criteria.isDescending(), keyset, genders != null, withNameKey));
+        
+        List<User> users = new ArrayList<>(limit);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        
+        try {
+            connection = databaseConfig.getReadConnection();
+            statement = connection.prepareStatement(sql);
+            int index = bindSearchFilters(statement, criteria, filters);
+            if (keyset == KEYSET_AFTER_VALUE && sortField != UserSearchCriteria.SortField.ID) {
+                statement.setObject(index++, afterValue);
+                statement.setObject(index++, afterValue);
+            }
+            if (keyset != KEYSET_NONE) {
+                statement.setInt(index++, after.getId());
+            }
+            statement.setInt(index, limit);
+            resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                users.add(mapResultSetToUser(resultSet, genders));
+                if (withNameKey) {
+                    nameKeys.add(resultSet.getBytes("name_key"));
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al buscar usuarios: " + criteria, e);
+        } finally {
+            SqlUtils.closeAllResources(resultSet, statement, connection);
+        }
+        
+        return users;
+    }
+    
+    /**
+     * Obtiene los usuarios creados o modificados después de una marca de agua, en orden (update_date, id)
+     * Solo se entregan filas con más de Constants.SYNC_SAFETY_LAG_SECONDS de antigüedad, para que una
+     * escritura aún sin confirmar (update_date es la hora de su sentencia, no la del COMMIT) no quede
+     * detrás de la nueva marca de agua; el margen debe superar la transacción de escritura más larga.
+     * Se lee del primario, sin abrir la ventana de lectura de lo escrito: es una lectura, no una escritura
+     * @param after marca de agua de la última sincronización
+     * @param limit número máximo de usuarios a devolver
+     * @return Lista de usuarios con su estado actual
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public List<User> getUsersChangedAfter(SyncWatermark after, int limit) throws UserManagementException {
+        List<User> users = new ArrayList<>(Math.min(limit, Constants.DEFAULT_PAGE_SIZE));
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        GenderSnapshot genders = genderSnapshot();
+        
+        try {
+            connection = databaseConfig.getPrimaryReadConnection();
+            statement = connection.prepareStatement(genders != null
+                ? Constants.SQL_SELECT_USERS_CHANGED_AFTER_NO_JOIN : Constants.SQL_SELECT_USERS_CHANGED_AFTER);
+            bindWatermark(statement, after, limit);
+            resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                users.add(mapResultSetToUser(resultSet, genders));
+            }
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al obtener usuarios modificados después de " + after, e);
+        } finally {
+            SqlUtils.closeAllResources(resultSet, statement, connection);
+        }
+        
+        return users;
+    }
+    
+    /**
+     * Obtiene los usuarios eliminados después de una marca de agua, en orden (deleted_at, user_id)
+     * La tabla users_tombstone la llena un trigger AFTER DELETE, por lo que también se registran
+     * los borrados hechos fuera de la aplicación. Se lee del primario, como getUsersChangedAfter
+     * @param after marca de agua de la última sincronización
+     * @param limit número máximo de registros a devolver
+     * @return Lista de usuarios eliminados
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public List<UserTombstone> getTombstonesAfter(SyncWatermark after, int limit) throws UserManagementException {
+        List<UserTombstone> tombstones = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        
+        try {
+            connection = databaseConfig.getPrimaryReadConnection();
+            statement = connection.prepareStatement(Constants.SQL_SELECT_TOMBSTONES_AFTER);
+            bindWatermark(statement, after, limit);
+            resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                tombstones.add(new UserTombstone(resultSet.getInt("user_id"), resultSet.getString("user_name"),
+                    resultSet.getTimestamp("deleted_at").toLocalDateTime()));
+            }
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al obtener usuarios eliminados después de " + after, e);
+        } finally {
+            SqlUtils.closeAllResources(resultSet, statement, connection);
+        }
+        
+        return tombstones;
+    }
+    
+    /**
+     * Elimina los registros de usuarios eliminados anteriores a una fecha
+     * Los consumidores que sincronicen con una marca de agua anterior dejarán de ver esos borrados
+     * @param before fecha límite (exclusiva)
+     * @return número de registros eliminados
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public int purgeTombstones(LocalDateTime before) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_PURGE_TOMBSTONES)) {
+            statement.setTimestamp(1, Timestamp.valueOf(before));
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al purgar usuarios eliminados", e);
+        }
+    }
+    
+    private static void bindWatermark(PreparedStatement statement, SyncWatermark after, int limit) throws SQLException {
+        Timestamp timestamp = Timestamp.valueOf(after.getTimestamp());
+        statement.setInt(1, Constants.SYNC_SAFETY_LAG_SECONDS);
+        statement.setTimestamp(2, timestamp);
+        statement.setTimestamp(3, timestamp);
+        statement.setInt(4, after.getId());
+        statement.setInt(5, limit);
+    }
+    
     /**
      * Obtiene un usuario por su ID
      * @param id ID del usuario a buscar
@@ -72,43 +408,174 @@ public class UserDAO {
      * @throws UserManagementException si hay error al acceder a la base de datos o si el usuario no existe
      */
     public User getUserById(int id) throws UserManagementException {
+        return findUserById(id).orElseThrow(() -> UserManagementException.userNotFound(id));
+    }
+    
+    /**
+     * Busca un usuario por su ID sin usar excepciones para el caso "no encontrado"
+     * Las búsquedas concurrentes del mismo ID comparten una sola consulta en curso, salvo dentro de una
+     * UnitOfWork, donde la lectura debe ver los cambios aún no confirmados de la propia transacción, o si el
+     * hilo está leyendo sus propias escrituras: la consulta en curso pudo empezar en una réplica atrasada
+     * @param id ID del usuario a buscar
+     * @return Optional con el usuario, o vacío si no existe
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Optional<User> findUserById(int id) throws UserManagementException {
+        if (UnitOfWork.isActive(databaseConfig) || databaseConfig.isReadingOwnWrites()) {
+            return loadUserById(id, false);
+        }
+        return userLookups.execute(id, key -> loadUserById(key, false));
+    }
+    
+    /**
+     * Busca un usuario por su ID leyendo siempre del primario
+     * Es la lectura que debe llenar cachés compartidas como UserCache: una réplica atrasada devolvería la fila
+     * anterior a una escritura recién invalidada y la dejaría en la caché durante todo su TTL
+     * @param id ID del usuario a buscar
+     * @return Optional con el usuario, o vacío si no existe
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Optional<User> findUserByIdOnPrimary(int id) throws UserManagementException {
+        if (UnitOfWork.isActive(databaseConfig)) {
+            return loadUserById(id, true);
+        }
+        return primaryLookups.execute(id, key -> loadUserById(key, true));
+    }
+    
+    /**
+     * Olvida la búsqueda por ID en curso de un usuario recién escrito
+     * Una búsqueda iniciada antes de la escritura devolvería la fila anterior: las siguientes cargan de nuevo.
+     * Dentro de una UnitOfWork se olvida también al terminar la transacción, cuando la escritura se hace visible
+     * @param id ID del usuario escrito, o null si la escritura no llegó a asignarlo
+     */
+    private void forgetLookup(Integer id) {
+        if (id == null) {
+            return;
+        }
+        userLookups.forget(id);
+        primaryLookups.forget(id);
+        if (UnitOfWork.isActive(databaseConfig)) {
+            UnitOfWork.current().afterCompletion(() -> {
+                userLookups.forget(id);
+                primaryLookups.forget(id);
+            });
+        }
+    }
+    
+    private void forgetLookups(List<User> users) {
+        List<Integer> ids = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getId() != null) {
+                ids.add(user.getId());
+                userLookups.forget(user.getId());
+                primaryLookups.forget(user.getId());
+            }
+        }
+        if (!ids.isEmpty() && UnitOfWork.isActive(databaseConfig)) {
+            UnitOfWork.current().afterCompletion(() -> {
+                ids.forEach(userLookups::forget);
+                ids.forEach(primaryLookups::forget);
+            });
+        }
+    }
+    
+    /**
+     * Obtiene los contadores de agrupación de búsquedas por ID
+     * @return SingleFlight.Stats con las búsquedas totales y las agrupadas
+     */
+    public SingleFlight.Stats getLookupStats() {
+        return userLookups.getStats();
+    }
+    
+    private Optional<User> loadUserById(int id, boolean fromPrimary) throws UserManagementException {
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
+        GenderSnapshot genders = genderSnapshot();
         
         try {
-            connection = databaseConfig.getConnection();
-            statement = connection.prepareStatement(Constants.SQL_SELECT_USER_BY_ID);
+            connection = fromPrimary ? databaseConfig.getPrimaryReadConnection() : databaseConfig.getReadConnection();
+            statement = connection.prepareStatement(
+                genders != null ? Constants.SQL_SELECT_USER_BY_ID_NO_JOIN : Constants.SQL_SELECT_USER_BY_ID);
             statement.setInt(1, id);
             resultSet = statement.executeQuery();
             
             if (resultSet.next()) {
-                return mapResultSetToUser(resultSet);
-            } else {
-                throw UserManagementException.userNotFound(id);
+                return Optional.of(mapResultSetToUser(resultSet, genders));
             }
+            return Optional.empty();
             
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al obtener usuario con ID: " + id, e);
         } finally {
-            SqlUtils.closeResources(resultSet, statement);
+            SqlUtils.closeAllResources(resultSet, statement, connection);
         }
     }
     
+    /**
+     * Obtiene varios usuarios por su ID con consultas IN por bloques
+     * Cada bloque usa uno de los tamaños fijos de Constants.IN_CLAUSE_SHAPES para reutilizar sentencias
+     * @param ids IDs de los usuarios a buscar
+     * @return mapa de ID a usuario en el orden de entrada; los IDs inexistentes se omiten
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) throws UserManagementException {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, User> found = new HashMap<>(distinctIds.size() * 2);
+        if (distinctIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        
+        GenderSnapshot genders = genderSnapshot();
+        String prefix = genders != null
+            ? Constants.SQL_SELECT_USERS_BY_IDS_PREFIX_NO_JOIN
+            : Constants.SQL_SELECT_USERS_BY_IDS_PREFIX;
+        try (Connection connection = databaseConfig.getReadConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += Constants.IN_CLAUSE_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + Constants.IN_CLAUSE_CHUNK_SIZE, distinctIds.size()));
+                int shape = SqlUtils.inClauseShape(chunk.size());
+                String sql = prefix + SqlUtils.placeholders(shape);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último ID
+                    for (int i = 0; i < shape; i++) {
+                        statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            User user = mapResultSetToUser(resultSet, genders);
+                            found.put(user.getId(), user);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al obtener usuarios por ID", e);
+        }
+        
+        Map<Integer, User> users = new LinkedHashMap<>(found.size() * 2);
+        for (Integer id : distinctIds) {
+            User user = found.get(id);
+            if (user != null) {
+                users.put(id, user);
+            }
+        }
+        return users;
+    }
+    
     /**
      * Crea un nuevo usuario en la base de datos
+     * La unicidad del nombre de usuario la garantiza el índice UNIQUE de user_name: un duplicado
+     * se detecta en el propio INSERT, en un solo viaje y sin carrera entre verificación e inserción
      * @param user usuario a crear
      * @return ID del usuario creado
-     * @throws UserManagementException si hay error al crear el usuario
+     * @throws UserManagementException si el nombre de usuario ya existe, el género no existe
+     *         o hay error al crear el usuario
      */
     public int createUser(User user) throws UserManagementException {
         try (Connection connection = databaseConfig.getConnection();
              PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
             
-            statement.setString(1, user.getName());
-            statement.setInt(2, user.getAge());
-            statement.setInt(3, user.getGenderId());
-            statement.setString(4, user.getUserName());
+            bindInsert(statement, user);
             
             int affectedRows = statement.executeUpdate();
             
@@ -116,6 +583,7 @@ public class UserDAO {
                 try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int userId = generatedKeys.getInt(1);
+                        user.setId(userId);
                         System.out.println(Constants.MSG_USER_CREATED + userId);
                         return userId;
                     }
@@ -125,41 +593,514 @@ public class UserDAO {
             throw UserManagementException.databaseError("No se pudo crear el usuario", null);
             
         } catch (SQLException e) {
-            throw UserManagementException.databaseError("Error al crear usuario", e);
+            throw mapWriteError(e, user, "Error al crear usuario");
+        } finally {
+            forgetLookup(user.getId());
+        }
+    }
+    
+    /**
+     * Crea un usuario o, si el nombre de usuario ya existe, actualiza esa fila (INSERT ... ON DUPLICATE KEY UPDATE)
+     * Pensado para trabajos de sincronización idempotentes: repetir la misma fila no incrementa la versión
+     * @param user usuario a crear o actualizar, identificado por su nombre de usuario
+     * @return ID de la fila insertada o actualizada
+     * @throws UserManagementException si el género no existe o hay error de base de datos
+     */
+    public int upsertUser(User user) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_UPSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindInsert(statement, user);
+            statement.executeUpdate();
+            
+            // id = LAST_INSERT_ID(id) hace que la clave generada sea también la de la fila actualizada
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int userId = generatedKeys.getInt(1);
+                    user.setId(userId);
+                    return userId;
+                }
+            }
+            
+            throw UserManagementException.databaseError("No se pudo obtener el ID del usuario sincronizado", null);
+            
+        } catch (SQLException e) {
+            throw mapWriteError(e, user, "Error al sincronizar usuario");
+        } finally {
+            forgetLookup(user.getId());
         }
     }
     
+    /**
+     * Crea varios usuarios con JDBC batching, en bloques de Constants.BATCH_CHUNK_SIZE filas
+     * Cada bloque se envía como un INSERT de varias filas (rewriteBatchedStatements) en una transacción.
+     * Si un bloque falla se revierte y se reintenta fila a fila para identificar las filas con error
+     * @param users usuarios a crear, ya validados
+     * @return BatchResult con los IDs generados en el orden de entrada y los errores por fila
+     * @throws UserManagementException si no se puede obtener la conexión
+     */
+    public BatchResult createUsers(List<User> users) throws UserManagementException {
+        return createUsers(users, Constants.BATCH_CHUNK_SIZE);
+    }
+    
+    /**
+     * Crea varios usuarios con JDBC batching, en bloques del tamaño indicado
+     * @param users usuarios a crear, ya validados
+     * @param chunkSize filas por bloque (y por transacción)
+     * @return BatchResult con los IDs generados en el orden de entrada y los errores por fila
+     * @throws UserManagementException si no se puede obtener la conexión
+     */
+    public BatchResult createUsers(List<User> users, int chunkSize) throws UserManagementException {
+        if (chunkSize <= 0) {
+            throw UserManagementException.validationError("El tamaño de bloque debe ser mayor que 0");
+        }
+        BatchResult result = new BatchResult(users.size());
+        if (users.isEmpty()) {
+            return result;
+        }
+        
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            for (int from = 0; from < users.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, users.size());
+                try {
+                    insertChunk(connection, users, from, to, result);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    insertRowByRow(connection, users, from, to, result);
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al crear usuarios por lotes", e);
+        } finally {
+            forgetLookups(users);
+        }
+        
+        System.out.println("Usuarios creados por lotes: " + result.getSuccessCount() + " de " + result.size());
+        return result;
+    }
+    
+    /**
+     * Inserta un bloque de usuarios con una sola ejecución por lotes
+     */
+    private void insertChunk(Connection connection, List<User> users, int from, int to, BatchResult result)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = from; i < to; i++) {
+                bindInsert(statement, users.get(i));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                for (int i = from; i < to; i++) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("El driver no devolvió todas las claves generadas del lote");
+                    }
+                    int userId = generatedKeys.getInt(1);
+                    users.get(i).setId(userId);
+                    result.setGeneratedId(i, userId);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Inserta un bloque fila a fila tras un fallo del lote, registrando el error de cada fila
+     */
+    private void insertRowByRow(Connection connection, List<User> users, int from, int to, BatchResult result)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = from; i < to; i++) {
+                User user = users.get(i);
+                try {
+                    bindInsert(statement, user);
+                    statement.executeUpdate();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            user.setId(generatedKeys.getInt(1));
+                            result.setGeneratedId(i, user.getId());
+                        }
+                    }
+                } catch (SQLException e) {
+                    user.setId(null);
+                    result.addFailure(i, SqlUtils.isDuplicateKey(e)
+                        ? UserManagementException.userAlreadyExists(user.getUserName())
+                        : UserManagementException.databaseError("Error al crear usuario: " + user.getUserName(), e));
+                }
+            }
+            connection.commit();
+        }
+    }
+    
+    /**
+     * Crea un usuario con un ID ya asignado (modo fragmentado: el ID lo asigna el directorio global)
+     * @param user usuario a crear, ya validado y con ID
+     * @throws UserManagementException si el ID o el nombre de usuario ya existen, el género no existe
+     *         o hay error al crear el usuario
+     */
+    public void insertUserWithId(User user) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER_WITH_ID)) {
+            
+            statement.setInt(1, user.getId());
+            bindInsert(statement, user, 2);
+            statement.executeUpdate();
+            
+        } catch (SQLException e) {
+            throw mapWriteError(e, user, "Error al crear usuario con ID: " + user.getId());
+        } finally {
+            forgetLookup(user.getId());
+        }
+    }
+    
+    /**
+     * Crea varios usuarios con IDs ya asignados en una sola transacción con JDBC batching
+     * Si el lote falla se repite fila a fila dentro de la transacción para registrar el error de cada fila
+     * @param users usuarios a crear, ya validados y con ID
+     * @return BatchResult con el ID de cada fila creada y el error de cada fila fallida
+     * @throws UserManagementException si no se puede obtener la conexión o confirmar la transacción
+     */
+    public BatchResult insertUsersWithIds(List<User> users) throws UserManagementException {
+        BatchResult result = new BatchResult(users.size());
+        if (users.isEmpty()) {
+            return result;
+        }
+        
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER_WITH_ID)) {
+                try {
+                    for (User user : users) {
+                        statement.setInt(1, user.getId());
+                        bindInsert(statement, user, 2);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                    for (int i = 0; i < users.size(); i++) {
+                        result.setGeneratedId(i, users.get(i).getId());
+                    }
+                } catch (SQLException e) {
+                    connection.rollback();
+                    statement.clearBatch();
+                    for (int i = 0; i < users.size(); i++) {
+                        User user = users.get(i);
+                        try {
+                            statement.setInt(1, user.getId());
+                            bindInsert(statement, user, 2);
+                            statement.executeUpdate();
+                            result.setGeneratedId(i, user.getId());
+                        } catch (SQLException rowError) {
+                            result.addFailure(i, mapWriteError(rowError, user, "Error al crear usuario con ID: " + user.getId()));
+                        }
+                    }
+                    connection.commit();
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al crear usuarios por lotes", e);
+        } finally {
+            forgetLookups(users);
+        }
+        
+        return result;
+    }
+    
+    private void bindInsert(PreparedStatement statement, User user) throws SQLException {
+        bindInsert(statement, user, 1);
+    }
+    
+    private void bindInsert(PreparedStatement statement, User user, int firstIndex) throws SQLException {
+        statement.setString(firstIndex, user.getName());
+        SqlUtils.setNullableInt(statement, firstIndex + 1, user.getAge());
+        SqlUtils.setNullableInt(statement, firstIndex + 2, user.getGenderId());
+        statement.setString(firstIndex + 3, user.getUserName());
+    }
+    
     /**
      * Actualiza un usuario existente en la base de datos
+     * Si el usuario trae versión, el UPDATE es un compare-and-set sobre users.version: no requiere
+     * lectura previa y detecta en la misma sentencia que otra operación modificó la fila
      * @param user usuario a actualizar
-     * @throws UserManagementException si hay error al actualizar el usuario o si no existe
+     * @throws UserManagementException si hay error al actualizar el usuario, si no existe,
+     *         si la versión es obsoleta, si el nombre de usuario está en uso o si el género no existe
      */
     public void updateUser(User user) throws UserManagementException {
-        Connection connection = null;
-        PreparedStatement statement = null;
+        Integer expectedVersion = user.getVersion();
         
-        try {
-            connection = databaseConfig.getConnection();
-            statement = connection.prepareStatement(Constants.SQL_UPDATE_USER);
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 expectedVersion != null ? Constants.SQL_UPDATE_USER_IF_VERSION : Constants.SQL_UPDATE_USER)) {
             
             statement.setString(1, user.getName());
-            statement.setInt(2, user.getAge());
-            statement.setInt(3, user.getGenderId());
+            SqlUtils.setNullableInt(statement, 2, user.getAge());
+            SqlUtils.setNullableInt(statement, 3, user.getGenderId());
             statement.setString(4, user.getUserName());
             statement.setInt(5, user.getId());
+            if (expectedVersion != null) {
+                statement.setInt(6, expectedVersion);
+            }
             
             int affectedRows = statement.executeUpdate();
             
             if (affectedRows > 0) {
+                if (expectedVersion != null) {
+                    user.setVersion(expectedVersion + 1);
+                }
                 System.out.println(Constants.MSG_USER_UPDATED);
+            } else if (expectedVersion != null && userExists(connection, user.getId())) {
+                throw UserManagementException.concurrentModification(user.getId(), expectedVersion);
             } else {
                 throw UserManagementException.userNotFound(user.getId());
             }
             
         } catch (SQLException e) {
+            if (SqlUtils.isDuplicateKey(e)) {
+                throw UserManagementException.userAlreadyExists(user.getUserName());
+            }
+            if (SqlUtils.isForeignKeyViolation(e)) {
+                throw UserManagementException.genderNotFound(user.getGenderId());
+            }
             throw UserManagementException.databaseError("Error al actualizar usuario con ID: " + user.getId(), e);
         } finally {
-            SqlUtils.closeResources(null, statement);
+            forgetLookup(user.getId());
+        }
+    }
+    
+    /**
+     * Actualiza solo los campos modificados de un usuario (User.getDirtyFields)
+     * Si el usuario trae versión, el UPDATE es además un compare-and-set sobre users.version
+     * @param user usuario con el ID y los campos a modificar
+     * @throws UserManagementException si no hay campos modificados, si el usuario no existe,
+     *         si la versión es obsoleta, si el nombre de usuario está en uso o si el género no existe
+     */
+    public void patchUser(User user) throws UserManagementException {
+        Set<User.Field> fields = user.getDirtyFields();
+        if (fields.isEmpty()) {
+            throw UserManagementException.validationError("No hay campos para actualizar");
+        }
+        
+        Integer expectedVersion = user.getVersion();
+        String sql = PATCH_SQL[patchMask(fields) * 2 + (expectedVersion != null ? 1 : 0)];
+        
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            int index = bindPatch(statement, user, fields);
+            if (expectedVersion != null) {
+                statement.setInt(index, expectedVersion);
+            }
+            
+            int affectedRows = statement.executeUpdate();
+            
+            if (affectedRows > 0) {
+                if (expectedVersion != null) {
+                    user.setVersion(expectedVersion + 1);
+                }
+                user.clearDirtyFields();
+                System.out.println(Constants.MSG_USER_UPDATED);
+            } else if (expectedVersion != null && userExists(connection, user.getId())) {
+                throw UserManagementException.concurrentModification(user.getId(), expectedVersion);
+            } else {
+                throw UserManagementException.userNotFound(user.getId());
+            }
+            
+        } catch (SQLException e) {
+            if (SqlUtils.isDuplicateKey(e)) {
+                throw UserManagementException.userAlreadyExists(user.getUserName());
+            }
+            if (SqlUtils.isForeignKeyViolation(e)) {
+                throw UserManagementException.genderNotFound(user.getGenderId());
+            }
+            throw UserManagementException.databaseError("Error al actualizar parcialmente usuario con ID: " + user.getId(), e);
+        } finally {
+            forgetLookup(user.getId());
+        }
+    }
+    
+    /**
+     * Actualiza parcialmente varios usuarios en una sola transacción (sin compare-and-set de versión)
+     * Las filas se agrupan por forma de UPDATE y cada grupo se envía como un lote JDBC. Si un lote falla
+     * (p. ej. por un nombre de usuario duplicado) se repite la transacción fila a fila en el orden de entrada
+     * para confirmar las filas válidas y registrar el error de cada fila inválida
+     * @param users usuarios con el ID y los campos modificados (User.getDirtyFields)
+     * @return BatchResult con el ID de cada fila actualizada y el error de cada fila fallida
+     * @throws UserManagementException si no se puede obtener la conexión o confirmar la transacción
+     */
+    public BatchResult patchUsers(List<User> users) throws UserManagementException {
+        BatchResult result = new BatchResult(users.size());
+        if (users.isEmpty()) {
+            return result;
+        }
+        
+        Map<Integer, List<Integer>> indexesByMask = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            int mask = patchMask(users.get(i).getDirtyFields());
+            if (mask == 0) {
+                result.addFailure(i, UserManagementException.validationError("No hay campos para actualizar"));
+            } else {
+                indexesByMask.computeIfAbsent(mask, m -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<Integer, List<Integer>> group : indexesByMask.entrySet()) {
+                    patchGroup(connection, PATCH_SQL[group.getKey() * 2], users, group.getValue(), result);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                patchRowByRow(connection, users, result);
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al actualizar usuarios por lotes", e);
+        } finally {
+            forgetLookups(users);
+        }
+        
+        return result;
+    }
+    
+    private void patchGroup(Connection connection, String sql, List<User> users, List<Integer> indexes,
+                            BatchResult result) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int index : indexes) {
+                User user = users.get(index);
+                statement.setInt(bindPatch(statement, user, user.getDirtyFields()), user.getId());
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for (int j = 0; j < indexes.size(); j++) {
+                int index = indexes.get(j);
+                if (counts[j] == 0) {
+                    result.addFailure(index, UserManagementException.userNotFound(users.get(index).getId()));
+                } else {
+                    result.setGeneratedId(index, users.get(index).getId());
+                }
+            }
+        }
+    }
+    
+    private void patchRowByRow(Connection connection, List<User> users, BatchResult result) throws SQLException {
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            Set<User.Field> fields = user.getDirtyFields();
+            if (fields.isEmpty()) {
+                continue;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(PATCH_SQL[patchMask(fields) * 2])) {
+                statement.setInt(bindPatch(statement, user, fields), user.getId());
+                if (statement.executeUpdate() == 0) {
+                    result.addFailure(i, UserManagementException.userNotFound(user.getId()));
+                } else {
+                    result.setGeneratedId(i, user.getId());
+                }
+            } catch (SQLException e) {
+                result.addFailure(i, mapWriteError(e, user, "Error al actualizar usuario con ID: " + user.getId()));
+            }
+        }
+        connection.commit();
+    }
+    
+    /**
+     * Enlaza los valores de los campos modificados en el orden de PATCH_SQL
+     * @return índice del parámetro del ID
+     */
+    private static int bindPatch(PreparedStatement statement, User user, Set<User.Field> fields) throws SQLException {
+        int index = 1;
+        for (User.Field field : User.Field.values()) {
+            if (!fields.contains(field)) {
+                continue;
+            }
+            switch (field) {
+                case NAME:
+                    statement.setString(index++, user.getName());
+                    break;
+                case AGE:
+                    SqlUtils.setNullableInt(statement, index++, user.getAge());
+                    break;
+                case GENDER_ID:
+                    SqlUtils.setNullableInt(statement, index++, user.getGenderId());
+                    break;
+                case USER_NAME:
+                    statement.setString(index++, user.getUserName());
+                    break;
+                default:
+                    throw new IllegalStateException("Campo no soportado: " + field);
+            }
+        }
+        return index;
+    }
+    
+    private static int patchMask(Set<User.Field> fields) {
+        int mask = 0;
+        for (User.Field field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return mask;
+    }
+    
+    /**
+     * Actualiza un usuario con todas sus verificaciones en una sola transacción
+     * Primer viaje: SELECT ... FOR UPDATE que bloquea la fila y comprueba a la vez que el nombre de usuario
+     * no pertenezca a otro usuario y que el género exista. Segundo viaje: el UPDATE.
+     * Las comprobaciones y la escritura ocurren sobre la misma conexión y bajo el mismo bloqueo
+     * @param user usuario a actualizar, ya validado
+     * @throws UserManagementException si el usuario no existe, el nombre de usuario está en uso,
+     *         el género no existe o hay error de base de datos
+     */
+    public void updateUserChecked(User user) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement lock = connection.prepareStatement(Constants.SQL_LOCK_USER_FOR_UPDATE)) {
+                    lock.setString(1, user.getUserName());
+                    SqlUtils.setNullableInt(lock, 2, user.getGenderId());
+                    SqlUtils.setNullableInt(lock, 3, user.getGenderId());
+                    lock.setInt(4, user.getId());
+                    try (ResultSet resultSet = lock.executeQuery()) {
+                        if (!resultSet.next()) {
+                            throw UserManagementException.userNotFound(user.getId());
+                        }
+                        if (resultSet.getBoolean("user_name_taken")) {
+                            throw UserManagementException.userAlreadyExists(user.getUserName());
+                        }
+                        if (!resultSet.getBoolean("gender_exists")) {
+                            throw UserManagementException.genderNotFound(user.getGenderId());
+                        }
+                    }
+                }
+                
+                try (PreparedStatement update = connection.prepareStatement(Constants.SQL_UPDATE_USER)) {
+                    update.setString(1, user.getName());
+                    SqlUtils.setNullableInt(update, 2, user.getAge());
+                    SqlUtils.setNullableInt(update, 3, user.getGenderId());
+                    update.setString(4, user.getUserName());
+                    update.setInt(5, user.getId());
+                    update.executeUpdate();
+                }
+                
+                connection.commit();
+                System.out.println(Constants.MSG_USER_UPDATED);
+            } catch (UserManagementException e) {
+                connection.rollback();
+                throw e;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (SqlUtils.isDuplicateKey(e)) {
+                    // Otro usuario tomó el nombre entre la verificación y el UPDATE
+                    throw UserManagementException.userAlreadyExists(user.getUserName());
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al actualizar usuario con ID: " + user.getId(), e);
+        } finally {
+            forgetLookup(user.getId());
         }
     }
     
@@ -184,24 +1125,35 @@ public class UserDAO {
             
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al eliminar usuario con ID: " + id, e);
+        } finally {
+            forgetLookup(id);
         }
     }
     
     /**
      * Verifica si existe un usuario con el ID especificado
+     * Usa una sonda SELECT 1 sobre la clave primaria sin leer ni mapear la fila
      * @param id ID del usuario a verificar
      * @return true si existe, false en caso contrario
      * @throws UserManagementException si hay error al acceder a la base de datos
      */
     public boolean userExists(int id) throws UserManagementException {
-        try {
-            getUserById(id);
-            return true;
-        } catch (UserManagementException e) {
-            if (e.getErrorType() == UserManagementException.ErrorType.USER_NOT_FOUND) {
-                return false;
+        try (Connection connection = databaseConfig.getConnection()) {
+            return userExists(connection, id);
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar existencia de usuario con ID: " + id, e);
+        }
+    }
+    
+    /**
+     * Sonda de existencia sobre una conexión ya prestada, para no pedir una segunda conexión al pool
+     */
+    private static boolean userExists(Connection connection, int id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_EXISTS_USER_BY_ID)) {
+            statement.setInt(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
             }
-            throw e;
         }
     }
     
@@ -212,41 +1164,109 @@ public class UserDAO {
      * @throws UserManagementException si hay error al acceder a la base de datos
      */
     public boolean userNameExists(String userName) throws UserManagementException {
-        //TODO: add to constants. 
-
-        String sql = "SELECT COUNT(*) FROM users WHERE user_name = ?";
-        
         try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_EXISTS_USER_BY_USERNAME)) {
             
             statement.setString(1, userName);
             
             try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getInt(1) > 0;
-                }
+                return resultSet.next();
             }
             
         } catch (SQLException e) {
             throw UserManagementException.databaseError("Error al verificar existencia de nombre de usuario: " + userName, e);
         }
+    }
+    
+    /**
+     * Verifica con una sola consulta que un usuario puede crearse
+     * Aplica la misma precedencia que las verificaciones por separado: primero el nombre de usuario, luego el género
+     * @param userName nombre de usuario a crear
+     * @param genderId ID del género, o null
+     * @throws UserManagementException si el nombre de usuario ya existe, si el género no existe
+     *         o hay error al acceder a la base de datos
+     */
+    public void verifyCreatable(String userName, Integer genderId) throws UserManagementException {
+        boolean userNameTaken;
+        boolean genderExists;
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_CHECK_USER_CREATABLE)) {
+            
+            statement.setString(1, userName);
+            SqlUtils.setNullableInt(statement, 2, genderId);
+            SqlUtils.setNullableInt(statement, 3, genderId);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                userNameTaken = resultSet.getBoolean("user_name_taken");
+                genderExists = resultSet.getBoolean("gender_exists");
+            }
+            
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar el usuario a crear: " + userName, e);
+        }
         
-        return false;
+        if (userNameTaken) {
+            throw UserManagementException.userAlreadyExists(userName);
+        }
+        if (!genderExists) {
+            throw UserManagementException.genderNotFound(genderId);
+        }
+    }
+    
+    /**
+     * Obtiene cuáles de los nombres de usuario indicados ya existen, con una consulta IN por bloque
+     * @param userNames nombres de usuario a verificar
+     * @return conjunto de nombres existentes tal como están almacenados
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Set<String> findExistingUserNames(Collection<String> userNames) throws UserManagementException {
+        Set<String> existing = new HashSet<>();
+        if (userNames.isEmpty()) {
+            return existing;
+        }
+        
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(userNames));
+        try (Connection connection = databaseConfig.getConnection()) {
+            for (int from = 0; from < names.size(); from += Constants.IN_CLAUSE_CHUNK_SIZE) {
+                List<String> chunk = names.subList(from, Math.min(from + Constants.IN_CLAUSE_CHUNK_SIZE, names.size()));
+                int shape = SqlUtils.inClauseShape(chunk.size());
+                String sql = Constants.SQL_SELECT_EXISTING_USERNAMES_PREFIX + SqlUtils.placeholders(shape);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último valor
+                    for (int i = 0; i < shape; i++) {
+                        statement.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            existing.add(resultSet.getString(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar existencia de nombres de usuario", e);
+        }
+        
+        return existing;
     }
     
     /**
      * Mapea un ResultSet a un objeto User
      * @param resultSet ResultSet con los datos del usuario
+     * @param genders instantánea de géneros si la consulta no incluye gender_name, o null
      * @return User mapeado
      * @throws SQLException si hay error al leer los datos
      */
-    private User mapResultSetToUser(ResultSet resultSet) throws SQLException {
+    private User mapResultSetToUser(ResultSet resultSet, GenderSnapshot genders) throws SQLException {
         User user = new User();
         user.setId(resultSet.getInt("id"));
         user.setName(resultSet.getString("name"));
-        user.setAge(resultSet.getInt("age"));
+        int age = resultSet.getInt("age");
+        user.setAge(resultSet.wasNull() ? null : age);
         user.setGenderId(resultSet.getInt("gender_id"));
         user.setUserName(resultSet.getString("user_name"));
+        user.setVersion(resultSet.getInt("version"));
         
         // Mapear fechas
         Timestamp insertTimestamp = resultSet.getTimestamp("insert_date");
@@ -259,9 +1279,276 @@ public class UserDAO {
             user.setUpdateDate(updateTimestamp.toLocalDateTime());
         }
         
-        user.setGenderName(resultSet.getString("gender_name"));
+        if (genders != null) {
+            user.setGenderName(genders.getName(user.getGenderId()));
+        } else {
+            user.setGenderName(resultSet.getString("gender_name"));
+        }
         
+        user.clearDirtyFields();
         return user;
     }
     
-} 
\ No newline at end of file
+    /**
+     * Traduce los errores de restricción de una escritura a errores de negocio
+     * @param e excepción SQL
+     * @param user usuario escrito
+     * @param message mensaje para los errores de base de datos
+     * @return UserManagementException a lanzar
+     */
+    private UserManagementException mapWriteError(SQLException e, User user, String message) {
+        if (SqlUtils.isDuplicateKey(e)) {
+            return UserManagementException.userAlreadyExists(user.getUserName());
+        }
+        if (SqlUtils.isForeignKeyViolation(e) && user.getGenderId() != null) {
+            return UserManagementException.genderNotFound(user.getGenderId());
+        }
+        return UserManagementException.databaseError(message, e);
+    }
+    
+    private static int searchFilters(UserSearchCriteria criteria) {
+        int filters = 0;
+        if (criteria.getNamePrefix() != null) {
+            filters |= SEARCH_NAME_PREFIX;
+        }
+        if (criteria.getUserName() != null) {
+            filters |= SEARCH_USER_NAME;
+        }
+        if (criteria.getMinAge() != null || criteria.getMaxAge() != null) {
+            filters |= SEARCH_AGE;
+        }
+        if (criteria.getGenderId() != null) {
+            filters |= SEARCH_GENDER;
+        }
+        if (criteria.getInsertedFrom() != null || criteria.getInsertedTo() != null) {
+            filters |= SEARCH_INSERT_DATE;
+        }
+        if (criteria.getUpdatedFrom() != null || criteria.getUpdatedTo() != null) {
+            filters |= SEARCH_UPDATE_DATE;
+        }
+        return filters;
+    }
+    
+    /**
+     * Enlaza los parámetros de los filtros en el mismo orden en que buildSearchStatement los escribe
+     * Los rangos con un solo extremo se completan con un valor centinela para compartir la misma forma
+     * @return siguiente índice de parámetro libre
+     */
+    private static int bindSearchFilters(PreparedStatement statement, UserSearchCriteria criteria, int filters)
+            throws SQLException {
+        int index = 1;
+        if ((filters & SEARCH_NAME_PREFIX) != 0) {
+            statement.setString(index++, SqlUtils.escapeLike(criteria.getNamePrefix()) + "%");
+        }
+        if ((filters & SEARCH_USER_NAME) != 0) {
+            statement.setString(index++, criteria.getUserName());
+        }
+        if ((filters & SEARCH_AGE) != 0) {
+            statement.setInt(index++, criteria.getMinAge() != null ? criteria.getMinAge() : Integer.MIN_VALUE);
+            statement.setInt(index++, criteria.getMaxAge() != null ? criteria.getMaxAge() : Integer.MAX_VALUE);
+        }
+        if ((filters & SEARCH_GENDER) != 0) {
+            statement.setInt(index++, criteria.getGenderId());
+        }
+        if ((filters & SEARCH_INSERT_DATE) != 0) {
+            statement.setTimestamp(index++, Timestamp.valueOf(
+                criteria.getInsertedFrom() != null ? criteria.getInsertedFrom() : MIN_DATE));
+            statement.setTimestamp(index++, Timestamp.valueOf(
+                criteria.getInsertedTo() != null ? criteria.getInsertedTo() : MAX_DATE));
+        }
+        if ((filters & SEARCH_UPDATE_DATE) != 0) {
+            statement.setTimestamp(index++, Timestamp.valueOf(
+                criteria.getUpdatedFrom() != null ? criteria.getUpdatedFrom() : MIN_DATE));
+            statement.setTimestamp(index++, Timestamp.valueOf(
+                criteria.getUpdatedTo() != null ? criteria.getUpdatedTo() : MAX_DATE));
+        }
+        return index;
+    }
+    
+    /**
+     * Construye una forma de búsqueda
+     * Orden ascendente: MySQL entrega los NULL primero, así que tras un valor no quedan NULL
+     * y tras un NULL quedan los NULL con ID mayor y todos los valores. En orden descendente es al revés
+     */
+    private static String buildSearchStatement(int filters, UserSearchCriteria.SortField sortField,
+                                               boolean descending, int keyset, boolean genderSnapshot,
+                                               boolean withNameKey) {
+        List<String> conditions = new ArrayList<>();
+        if ((filters & SEARCH_NAME_PREFIX) != 0) {
+            conditions.add("u.name LIKE ?");
+        }
+        if ((filters & SEARCH_USER_NAME) != 0) {
+            conditions.add("u.user_name = ?");
+        }
+        if ((filters & SEARCH_AGE) != 0) {
+            conditions.add("u.age BETWEEN ? AND ?");
+        }
+        if ((filters & SEARCH_GENDER) != 0) {
+            conditions.add("u.gender_id = ?");
+        }
+        if ((filters & SEARCH_INSERT_DATE) != 0) {
+            conditions.add("u.insert_date >= ? AND u.insert_date < ?");
+        }
+        if ((filters & SEARCH_UPDATE_DATE) != 0) {
+            conditions.add("u.update_date >= ? AND u.update_date < ?");
+        }
+        
+        String column = sortColumn(sortField);
+        String after = descending ? "<" : ">";
+        if (sortField == UserSearchCriteria.SortField.ID) {
+            if (keyset != KEYSET_NONE) {
+                conditions.add("u.id " + after + " ?");
+            }
+        } else if (keyset == KEYSET_AFTER_VALUE) {
+            conditions.add("(" + column + " " + after + " ? OR (" + column + " = ? AND u.id " + after + " ?)"
+                + (descending ? " OR " + column + " IS NULL)" : ")"));
+        } else if (keyset == KEYSET_AFTER_NULL) {
+            conditions.add(descending
+                ? "(" + column + " IS NULL AND u.id < ?)"
+                : "(" + column + " IS NOT NULL OR u.id > ?)");
+        }
+        
+        StringBuilder sql = new StringBuilder(genderSnapshot
+            ? Constants.SQL_SELECT_ALL_USERS_NO_JOIN : Constants.SQL_SELECT_ALL_USERS);
+        if (withNameKey) {
+            sql.insert(sql.indexOf(" FROM "), ", WEIGHT_STRING(u.name) AS name_key");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        if (sortField != UserSearchCriteria.SortField.ID) {
+            sql.append(column).append(direction).append(", ");
+        }
+        sql.append("u.id").append(direction).append(" LIMIT ?");
+        return sql.toString();
+    }
+    
+    private static String sortColumn(UserSearchCriteria.SortField sortField) {
+        switch (sortField) {
+            case NAME:
+                return "u.name";
+            case AGE:
+                return "u.age";
+            case INSERT_DATE:
+                return "u.insert_date";
+            case UPDATE_DATE:
+                return "u.update_date";
+            default:
+                return "u.id";
+        }
+    }
+    
+    /**
+     * Obtiene el valor de la columna de orden de una fila, con el tipo que espera JDBC
+     */
+    private static Object sortValue(User user, UserSearchCriteria.SortField sortField) {
+        switch (sortField) {
+            case NAME:
+                return user.getName();
+            case AGE:
+                return user.getAge();
+            case INSERT_DATE:
+                return user.getInsertDate() != null ? Timestamp.valueOf(user.getInsertDate()) : null;
+            case UPDATE_DATE:
+                return user.getUpdateDate() != null ? Timestamp.valueOf(user.getUpdateDate()) : null;
+            default:
+                return user.getId();
+        }
+    }
+    
+    /**
+     * Construye todas las formas de UPDATE parcial
+     * @return arreglo indexado por (máscara de campos * 2 + 1 si hay compare-and-set de versión)
+     */
+    private static String[] buildPatchStatements() {
+        User.Field[] fields = User.Field.values();
+        String[] statements = new String[(1 << fields.length) * 2];
+        for (int mask = 0; mask < (1 << fields.length); mask++) {
+            StringBuilder sql = new StringBuilder(Constants.SQL_PATCH_USER_PREFIX);
+            for (User.Field field : fields) {
+                if ((mask & (1 << field.ordinal())) != 0) {
+                    sql.append(columnName(field)).append(" = ?, ");
+                }
+            }
+            sql.append(Constants.SQL_PATCH_USER_SUFFIX);
+            statements[mask * 2] = sql.toString();
+            statements[mask * 2 + 1] = sql + Constants.SQL_PATCH_USER_VERSION_SUFFIX;
+        }
+        return statements;
+    }
+    
+    /**
+     * Obtiene la columna de la tabla users de un campo editable
+     */
+    private static String columnName(User.Field field) {
+        switch (field) {
+            case NAME:
+                return "name";
+            case AGE:
+                return "age";
+            case GENDER_ID:
+                return "gender_id";
+            case USER_NAME:
+                return "user_name";
+            default:
+                throw new IllegalArgumentException("Campo no soportado: " + field);
+        }
+    }
+    
+    /**
+     * Obtiene la instantánea de géneros si la caché está cargada
+     * @return GenderSnapshot, o null si las lecturas deben hacer el JOIN con gender
+     */
+    private GenderSnapshot genderSnapshot() {
+        return genderDAO != null ? genderDAO.getSnapshot() : null;
+    }
+    
+    /**
+     * Spliterator que mapea las filas de un ResultSet en streaming a objetos User
+     */
+    private final class UserSpliterator extends Spliterators.AbstractSpliterator<User> {
+        
+        private final ResultSet resultSet;
+        private final GenderSnapshot genders;
+        private volatile boolean exhausted;
+        
+        private UserSpliterator(ResultSet resultSet, GenderSnapshot genders) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+            this.genders = genders;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super User> action) {
+            if (exhausted) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    exhausted = true;
+                    return false;
+                }
+                action.accept(mapResultSetToUser(resultSet, genders));
+                return true;
+            } catch (SQLException e) {
+                throw new UncheckedUserManagementException(
+                    UserManagementException.databaseError("Error al leer usuarios en streaming", e));
+            }
+        }
+    }
+    
+    /**
+     * Usuario con la clave de orden de su nombre, leída con WEIGHT_STRING(u.name)
+     */
+    static final class NameKeyedUser {
+        final User user;
+        final byte[] nameKey;
+        
+        NameKeyedUser(User user, byte[] nameKey) {
+            this.user = user;
+            this.nameKey = nameKey;
+        }
+    }
+}
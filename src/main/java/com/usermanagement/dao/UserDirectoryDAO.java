@@ -0,0 +1,300 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.User;
+import com.usermanagement.util.Constants;
+import com.usermanagement.util.SqlUtils;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Clase DAO del directorio global de usuarios del modo fragmentado (tabla user_directory)
+ * El directorio vive en la base de datos principal: asigna los IDs de usuario (AUTO_INCREMENT) y su
+ * índice UNIQUE garantiza que un nombre de usuario no se repita entre shards
+ */
+public class UserDirectoryDAO {
+
+    private final DatabaseConfig databaseConfig;
+
+    /**
+     * Escritura en un shard que se confirma junto con el cambio de nombre en el directorio
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface ShardWrite<T> {
+        T run() throws UserManagementException;
+    }
+
+    /**
+     * Constructor que recibe la configuración de la base de datos principal
+     * @param databaseConfig configuración de la base de datos que contiene user_directory
+     */
+    public UserDirectoryDAO(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+    }
+
+    /**
+     * Reserva un nombre de usuario y obtiene el ID del nuevo usuario
+     * @param userName nombre de usuario
+     * @return ID asignado
+     * @throws UserManagementException si el nombre de usuario ya existe o hay error de base de datos
+     */
+    public int reserve(String userName) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER_DIRECTORY,
+                                                                       Statement.RETURN_GENERATED_KEYS)) {
+
+            statement.setString(1, userName);
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                }
+            }
+            throw UserManagementException.databaseError("No se pudo reservar el nombre de usuario: " + userName, null);
+
+        } catch (SQLException e) {
+            if (SqlUtils.isDuplicateKey(e)) {
+                throw UserManagementException.userAlreadyExists(userName);
+            }
+            throw UserManagementException.databaseError("Error al reservar el nombre de usuario: " + userName, e);
+        }
+    }
+
+    /**
+     * Reserva los nombres de varios usuarios en una sola transacción y asigna su ID a cada usuario
+     * @param users usuarios a crear, ya validados
+     * @return BatchResult con el ID reservado de cada fila y el error de cada fila cuyo nombre ya existe
+     * @throws UserManagementException si hay error de base de datos
+     */
+    public BatchResult reserveAll(List<User> users) throws UserManagementException {
+        BatchResult result = new BatchResult(users.size());
+        if (users.isEmpty()) {
+            return result;
+        }
+
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_INSERT_USER_DIRECTORY,
+                                                                           Statement.RETURN_GENERATED_KEYS)) {
+                try {
+                    for (User user : users) {
+                        statement.setString(1, user.getUserName());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (int i = 0; i < users.size(); i++) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("El driver no devolvió todas las claves generadas del lote");
+                            }
+                            users.get(i).setId(generatedKeys.getInt(1));
+                            result.setGeneratedId(i, users.get(i).getId());
+                        }
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    statement.clearBatch();
+                    reserveRowByRow(statement, users, result);
+                    connection.commit();
+                }
+            }
+        } catch (SQLException e) {
+            for (User user : users) {
+                user.setId(null);
+            }
+            throw UserManagementException.databaseError("Error al reservar nombres de usuario", e);
+        }
+
+        return result;
+    }
+
+    private void reserveRowByRow(PreparedStatement statement, List<User> users, BatchResult result) throws SQLException {
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(null);
+            try {
+                statement.setString(1, user.getUserName());
+                statement.executeUpdate();
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        user.setId(generatedKeys.getInt(1));
+                        result.setGeneratedId(i, user.getId());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!SqlUtils.isDuplicateKey(e)) {
+                    throw e;
+                }
+                result.addFailure(i, UserManagementException.userAlreadyExists(user.getUserName()));
+            }
+        }
+    }
+
+    /**
+     * Cambia el nombre de usuario en el directorio y ejecuta la escritura del shard bajo el mismo bloqueo
+     * La fila del directorio queda bloqueada hasta que termina la escritura del shard: el cambio de nombre
+     * se confirma solo si la escritura tiene éxito y se deshace si falla. Las dos bases de datos confirman
+     * por separado: si el COMMIT del directorio falla después de confirmarse el shard, el cambio se repite
+     * en el directorio (ver reconcileRename) en lugar de dejar el nombre nuevo solo en el shard
+     * @param id ID del usuario
+     * @param userName nuevo nombre de usuario
+     * @param write escritura en el shard
+     * @param <T> tipo del resultado
+     * @return resultado de la escritura
+     * @throws UserManagementException si el nombre ya pertenece a otro usuario, el usuario no existe,
+     *         la escritura falla o hay error de base de datos
+     */
+    public <T> T rename(int id, String userName, ShardWrite<T> write) throws UserManagementException {
+        T result;
+        SQLException commitError = null;
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(Constants.SQL_UPDATE_USER_DIRECTORY)) {
+                    statement.setString(1, userName);
+                    statement.setInt(2, id);
+                    // Connector/J devuelve las filas encontradas, también si el nombre no cambia
+                    if (statement.executeUpdate() == 0) {
+                        throw UserManagementException.userNotFound(id);
+                    }
+                }
+                result = write.run();
+            } catch (UserManagementException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (SqlUtils.isDuplicateKey(e)) {
+                    throw UserManagementException.userAlreadyExists(userName);
+                }
+                throw e;
+            }
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                commitError = e;
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al actualizar el directorio del usuario con ID: " + id, e);
+        }
+        if (commitError != null) {
+            reconcileRename(id, userName, commitError);
+        }
+        return result;
+    }
+
+    /**
+     * Repara el directorio cuando su COMMIT falla después de confirmarse la escritura del shard
+     * El shard ya tiene el nombre nuevo: el cambio se repite en el directorio en una transacción propia.
+     * Si tampoco se puede (p. ej. otro usuario tomó el nombre al liberarse el bloqueo), directorio y shard
+     * quedan distintos: se registra para repararlo a mano y se lanza el error del COMMIT
+     */
+    private void reconcileRename(int id, String userName, SQLException commitError) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_UPDATE_USER_DIRECTORY)) {
+            statement.setString(1, userName);
+            statement.setInt(2, id);
+            if (statement.executeUpdate() > 0) {
+                return;
+            }
+        } catch (SQLException e) {
+            commitError.addSuppressed(e);
+        }
+        System.err.println("El directorio no refleja el cambio de nombre confirmado en el shard: usuario " + id
+            + ", nombre '" + userName + "'");
+        throw UserManagementException.databaseError("Error al confirmar el directorio del usuario con ID: " + id, commitError);
+    }
+
+    /**
+     * Libera el nombre de usuario de un usuario eliminado o cuya alta falló
+     * Un error solo se registra: el nombre queda reservado pero no se pierden datos
+     * @param ids IDs a liberar
+     */
+    public void release(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_DELETE_USER_DIRECTORY)) {
+
+            for (Integer id : ids) {
+                statement.setInt(1, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+        } catch (SQLException e) {
+            System.err.println("Error al liberar " + ids.size() + " entradas del directorio de usuarios " + ids + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Busca el ID asignado a un nombre de usuario
+     * @param userName nombre de usuario
+     * @return ID del usuario, o null si el nombre no está reservado
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Integer findId(String userName) throws UserManagementException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(Constants.SQL_SELECT_USER_DIRECTORY_ID)) {
+
+            statement.setString(1, userName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : null;
+            }
+
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al buscar el nombre de usuario: " + userName, e);
+        }
+    }
+
+    /**
+     * Obtiene cuáles de los nombres de usuario indicados están reservados, con una consulta IN por bloque
+     * @param userNames nombres de usuario a verificar
+     * @return conjunto de nombres existentes tal como están almacenados
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Set<String> findExistingUserNames(Collection<String> userNames) throws UserManagementException {
+        Set<String> existing = new HashSet<>();
+        if (userNames.isEmpty()) {
+            return existing;
+        }
+
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(userNames));
+        try (Connection connection = databaseConfig.getConnection()) {
+            for (int from = 0; from < names.size(); from += Constants.IN_CLAUSE_CHUNK_SIZE) {
+                List<String> chunk = names.subList(from, Math.min(from + Constants.IN_CLAUSE_CHUNK_SIZE, names.size()));
+                int shape = SqlUtils.inClauseShape(chunk.size());
+                String sql = Constants.SQL_SELECT_EXISTING_DIRECTORY_NAMES_PREFIX + SqlUtils.placeholders(shape);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último valor
+                    for (int i = 0; i < shape; i++) {
+                        statement.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            existing.add(resultSet.getString(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw UserManagementException.databaseError("Error al verificar existencia de nombres de usuario", e);
+        }
+
+        return existing;
+    }
+}
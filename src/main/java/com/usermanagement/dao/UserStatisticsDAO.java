@@ -0,0 +1,182 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.util.Constants;
+import com.usermanagement.util.SqlUtils;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clase DAO para las estadísticas agregadas de usuarios
+ * Cada consulta agrupa en la base de datos (GROUP BY) y devuelve solo los totales,
+ * nunca las filas de users. Con shards cada agregación se calcula en todos ellos y se suman los totales:
+ * la base de datos principal solo guarda el directorio y no tiene filas de users
+ */
+public class UserStatisticsDAO {
+    
+    private final List<DatabaseConfig> databaseConfigs;
+    
+    /**
+     * Constructor que recibe la configuración de base de datos por inyección
+     * @param databaseConfig configuración de la base de datos
+     */
+    public UserStatisticsDAO(DatabaseConfig databaseConfig) {
+        this(List.of(databaseConfig));
+    }
+    
+    /**
+     * Constructor para usuarios repartidos en shards
+     * @param shardConfigs una configuración por shard (las mismas que usa ShardedUserDAO)
+     */
+    public UserStatisticsDAO(List<DatabaseConfig> shardConfigs) {
+        if (shardConfigs.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos una base de datos");
+        }
+        this.databaseConfigs = List.copyOf(shardConfigs);
+    }
+    
+    /**
+     * Cuenta todos los usuarios
+     * @return número de usuarios
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public long countUsers() throws UserManagementException {
+        long total = 0;
+        for (DatabaseConfig databaseConfig : databaseConfigs) {
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            
+            try {
+                connection = databaseConfig.getReadConnection();
+                statement = connection.prepareStatement(Constants.SQL_COUNT_USERS);
+                resultSet = statement.executeQuery();
+                total += resultSet.next() ? resultSet.getLong(1) : 0;
+                
+            } catch (SQLException e) {
+                throw UserManagementException.databaseError("Error al contar usuarios", e);
+            } finally {
+                SqlUtils.closeAllResources(resultSet, statement, connection);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Cuenta los usuarios de cada género
+     * @return mapa de gender_id a número de usuarios; la clave 0 agrupa a los usuarios sin género
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public Map<Integer, Long> countUsersByGender() throws UserManagementException {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (DatabaseConfig databaseConfig : databaseConfigs) {
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            
+            try {
+                connection = databaseConfig.getReadConnection();
+                statement = connection.prepareStatement(Constants.SQL_COUNT_USERS_BY_GENDER);
+                resultSet = statement.executeQuery();
+                
+                while (resultSet.next()) {
+                    // getInt devuelve 0 para gender_id NULL
+                    counts.merge(resultSet.getInt("gender_id"), resultSet.getLong("total"), Long::sum);
+                }
+                
+            } catch (SQLException e) {
+                throw UserManagementException.databaseError("Error al contar usuarios por género", e);
+            } finally {
+                SqlUtils.closeAllResources(resultSet, statement, connection);
+            }
+        }
+        
+        return counts;
+    }
+    
+    /**
+     * Cuenta los usuarios por tramo de edad
+     * @param bucketWidth amplitud de cada tramo en años
+     * @return arreglo donde la posición i cuenta las edades en [i * bucketWidth, (i + 1) * bucketWidth);
+     *         los usuarios sin edad no se cuentan
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public long[] countUsersByAgeBucket(int bucketWidth) throws UserManagementException {
+        long[] histogram = new long[Constants.MAX_AGE / bucketWidth + 1];
+        for (DatabaseConfig databaseConfig : databaseConfigs) {
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            
+            try {
+                connection = databaseConfig.getReadConnection();
+                statement = connection.prepareStatement(Constants.SQL_COUNT_USERS_BY_AGE_BUCKET);
+                statement.setInt(1, bucketWidth);
+                resultSet = statement.executeQuery();
+                
+                while (resultSet.next()) {
+                    int bucket = resultSet.getInt("bucket");
+                    if (bucket >= 0 && bucket < histogram.length) {
+                        histogram[bucket] += resultSet.getLong("total");
+                    }
+                }
+                
+            } catch (SQLException e) {
+                throw UserManagementException.databaseError("Error al calcular el histograma de edades", e);
+            } finally {
+                SqlUtils.closeAllResources(resultSet, statement, connection);
+            }
+        }
+        
+        return histogram;
+    }
+    
+    /**
+     * Cuenta las altas de usuarios por día
+     * @param from primer día (inclusivo)
+     * @param to último día (exclusivo)
+     * @return arreglo donde la posición i cuenta las altas del día from + i
+     * @throws UserManagementException si hay error al acceder a la base de datos
+     */
+    public long[] countSignupsPerDay(LocalDate from, LocalDate to) throws UserManagementException {
+        long[] signups = new long[(int) ChronoUnit.DAYS.between(from, to)];
+        for (DatabaseConfig databaseConfig : databaseConfigs) {
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            
+            try {
+                connection = databaseConfig.getReadConnection();
+                statement = connection.prepareStatement(Constants.SQL_COUNT_SIGNUPS_PER_DAY);
+                statement.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                statement.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+                resultSet = statement.executeQuery();
+                
+                while (resultSet.next()) {
+                    Date day = resultSet.getDate("day");
+                    int index = (int) ChronoUnit.DAYS.between(from, day.toLocalDate());
+                    if (index >= 0 && index < signups.length) {
+                        signups[index] += resultSet.getLong("total");
+                    }
+                }
+                
+            } catch (SQLException e) {
+                throw UserManagementException.databaseError("Error al contar altas por día", e);
+            } finally {
+                SqlUtils.closeAllResources(resultSet, statement, connection);
+            }
+        }
+        
+        return signups;
+    }
+}
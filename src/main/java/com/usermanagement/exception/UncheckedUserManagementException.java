@@ -0,0 +1,27 @@
+package com.usermanagement.exception;
+
+/**
+ * Envoltorio no comprobado de UserManagementException
+ * Se usa donde la API de Java no admite excepciones comprobadas, como en los Stream de usuarios
+ */
+public class UncheckedUserManagementException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Constructor que envuelve la excepción de negocio original
+     * @param cause excepción de negocio original
+     */
+    public UncheckedUserManagementException(UserManagementException cause) {
+        super(cause.getMessage(), cause);
+    }
+    
+    /**
+     * Obtiene la excepción de negocio original
+     * @return UserManagementException envuelta
+     */
+    @Override
+    public synchronized UserManagementException getCause() {
+        return (UserManagementException) super.getCause();
+    }
+}
@@ -11,32 +11,46 @@ public class UserManagementException extends Exception {
      * Tipos de errores que pueden ocurrir en el sistema
      */
     public enum ErrorType {
-        VALIDATION_ERROR("Error de validación"),
-        USER_NOT_FOUND("Usuario no encontrado"),
-        USER_ALREADY_EXISTS("Usuario ya existe"),
-        GENDER_NOT_FOUND("Género no encontrado"),
-        DATABASE_ERROR("Error de base de datos"),
-        BUSINESS_RULE_VIOLATION("Violación de regla de negocio"),
-        UNKNOWN_ERROR("Error desconocido");
+        VALIDATION_ERROR("Error de validación", true),
+        USER_NOT_FOUND("Usuario no encontrado", true),
+        USER_ALREADY_EXISTS("Usuario ya existe", true),
+        GENDER_NOT_FOUND("Género no encontrado", true),
+        CONCURRENT_MODIFICATION("Modificación concurrente", true),
+        DATABASE_ERROR("Error de base de datos", false),
+        BUSINESS_RULE_VIOLATION("Violación de regla de negocio", false),
+        UNKNOWN_ERROR("Error desconocido", false);
         
         private final String description;
+        private final boolean expected;
         
-        ErrorType(String description) {
+        ErrorType(String description, boolean expected) {
             this.description = description;
+            this.expected = expected;
         }
         
         public String getDescription() {
             return description;
         }
+        
+        /**
+         * Indica si el error es un resultado de negocio esperado
+         * Las excepciones de estos tipos se crean sin traza de pila (stackless)
+         * @return true si es un resultado esperado
+         */
+        public boolean isExpected() {
+            return expected;
+        }
     }
     
     /**
      * Constructor con mensaje y tipo de error
+     * Los tipos esperados (ErrorType.isExpected) se crean sin traza de pila: un usuario inexistente
+     * es un resultado normal de negocio y no debe pagar el coste de fillInStackTrace
      * @param message mensaje de error
      * @param errorType tipo de error
      */
     public UserManagementException(String message, ErrorType errorType) {
-        super(message);
+        super(message, null, false, !errorType.isExpected());
         this.errorType = errorType;
     }
     
@@ -103,6 +117,17 @@ public class UserManagementException extends Exception {
         return new UserManagementException("Género no encontrado con ID: " + genderId, ErrorType.GENDER_NOT_FOUND);
     }
     
+    /**
+     * Crea una excepción de modificación concurrente (versión obsoleta)
+     * @param userId ID del usuario
+     * @param expectedVersion versión que tenía el cliente
+     * @return UserManagementException
+     */
+    public static UserManagementException concurrentModification(int userId, int expectedVersion) {
+        return new UserManagementException("El usuario con ID " + userId + " fue modificado por otra operación " +
+            "(versión esperada: " + expectedVersion + ")", ErrorType.CONCURRENT_MODIFICATION);
+    }
+    
     /**
      * Crea una excepción de error de base de datos
      * @param message mensaje de error
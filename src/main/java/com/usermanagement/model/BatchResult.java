@@ -0,0 +1,88 @@
+package com.usermanagement.model;
+
+import com.usermanagement.exception.UserManagementException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resultado de una operación por lotes
+ * Conserva los IDs generados en el orden de entrada y el error de cada fila que falló
+ */
+public class BatchResult {
+    private final int[] generatedIds;
+    private final Map<Integer, UserManagementException> failures = new TreeMap<>();
+    
+    /**
+     * Constructor para un lote del tamaño indicado
+     * @param size número de filas del lote
+     */
+    public BatchResult(int size) {
+        this.generatedIds = new int[size];
+    }
+    
+    /**
+     * Registra el ID generado para una fila
+     * @param index posición de la fila en la entrada
+     * @param id ID generado
+     */
+    public void setGeneratedId(int index, int id) {
+        generatedIds[index] = id;
+    }
+    
+    /**
+     * Registra el error de una fila; una fila fallida no tiene ID generado
+     * @param index posición de la fila en la entrada
+     * @param error error de la fila
+     */
+    public void addFailure(int index, UserManagementException error) {
+        generatedIds[index] = 0;
+        failures.put(index, error);
+    }
+    
+    /**
+     * Obtiene los IDs generados en el orden de entrada
+     * @return arreglo de IDs; 0 en las posiciones que fallaron
+     */
+    public int[] getGeneratedIds() {
+        return generatedIds.clone();
+    }
+    
+    public int getGeneratedId(int index) {
+        return generatedIds[index];
+    }
+    
+    public boolean isFailed(int index) {
+        return failures.containsKey(index);
+    }
+    
+    /**
+     * Obtiene los errores por fila
+     * @return mapa ordenado de posición de entrada a error
+     */
+    public Map<Integer, UserManagementException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+    
+    public int size() {
+        return generatedIds.length;
+    }
+    
+    public int getSuccessCount() {
+        return generatedIds.length - failures.size();
+    }
+    
+    public int getFailureCount() {
+        return failures.size();
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "size=" + generatedIds.length +
+                ", success=" + getSuccessCount() +
+                ", failures=" + failures.size() +
+                '}';
+    }
+}
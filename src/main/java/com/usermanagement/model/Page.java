@@ -0,0 +1,54 @@
+package com.usermanagement.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por clave (keyset)
+ * El cursor es opaco: el cliente solo debe devolverlo para pedir la página siguiente
+ * @param <T> tipo de los elementos de la página
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+    
+    // Constructor con parámetros
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    /**
+     * Obtiene el cursor de continuación
+     * @return cursor para la página siguiente, o null si esta es la última página
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+    
+    public int size() {
+        return items.size();
+    }
+    
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "Page{" +
+                "size=" + items.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
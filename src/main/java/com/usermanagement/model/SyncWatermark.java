@@ -0,0 +1,63 @@
+package com.usermanagement.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Posición en el flujo de cambios de usuarios: el último (instante, id) ya entregado a un consumidor
+ * El orden es por instante y, dentro del mismo instante, por ID de usuario
+ */
+public final class SyncWatermark implements Comparable<SyncWatermark> {
+    
+    /**
+     * Posición inicial: la primera sincronización entrega la tabla completa
+     */
+    public static final SyncWatermark INITIAL = new SyncWatermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+    
+    private final LocalDateTime timestamp;
+    private final int id;
+    
+    // Constructor con parámetros
+    public SyncWatermark(LocalDateTime timestamp, int id) {
+        this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+        this.id = id;
+    }
+    
+    // Getters
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    @Override
+    public int compareTo(SyncWatermark other) {
+        int byTimestamp = timestamp.compareTo(other.timestamp);
+        return byTimestamp != 0 ? byTimestamp : Integer.compare(id, other.id);
+    }
+    
+    // Métodos equals y hashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SyncWatermark that = (SyncWatermark) o;
+        return id == that.id && timestamp.equals(that.timestamp);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "SyncWatermark{" +
+                "timestamp=" + timestamp +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -1,12 +1,26 @@
 package com.usermanagement.model;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Clase POJO que representa la entidad User
  */
 public class User {
+    
+    /**
+     * Campos editables de un usuario, usados para las actualizaciones parciales
+     */
+    public enum Field {
+        NAME,
+        AGE,
+        GENDER_ID,
+        USER_NAME
+    }
+    
     private Integer id;
     private String name;
     private Integer age;
@@ -15,6 +29,8 @@ public class User {
     private LocalDateTime insertDate;
     private LocalDateTime updateDate;
     private String genderName; // Campo adicional para mostrar el nombre del género
+    private Integer version; // Token de concurrencia optimista (columna users.version)
+    private final EnumSet<Field> dirtyFields = EnumSet.noneOf(Field.class); // Campos asignados por setter
     
     // Constructor por defecto
     public User() {}
@@ -40,6 +56,13 @@ public class User {
         this.genderName = genderName;
     }
     
+    // Constructor de copia
+    public User(User other) {
+        this(other.id, other.name, other.age, other.genderId, other.userName,
+             other.insertDate, other.updateDate, other.genderName);
+        this.version = other.version;
+    }
+    
     // Getters y Setters
     public Integer getId() {
         return id;
@@ -55,6 +78,7 @@ public class User {
     
     public void setName(String name) {
         this.name = name;
+        dirtyFields.add(Field.NAME);
     }
     
     public Integer getAge() {
@@ -63,6 +87,7 @@ public class User {
     
     public void setAge(Integer age) {
         this.age = age;
+        dirtyFields.add(Field.AGE);
     }
     
     public Integer getGenderId() {
@@ -71,6 +96,7 @@ public class User {
     
     public void setGenderId(Integer genderId) {
         this.genderId = genderId;
+        dirtyFields.add(Field.GENDER_ID);
     }
     
     public String getUserName() {
@@ -79,6 +105,7 @@ public class User {
     
     public void setUserName(String userName) {
         this.userName = userName;
+        dirtyFields.add(Field.USER_NAME);
     }
     
     public LocalDateTime getInsertDate() {
@@ -105,6 +132,38 @@ public class User {
         this.genderName = genderName;
     }
     
+    /**
+     * Obtiene la versión de la fila leída
+     * Si se informa al actualizar, el UPDATE solo se aplica cuando la fila no cambió desde esa lectura
+     * @return versión, o null si no se usa concurrencia optimista
+     */
+    public Integer getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+    
+    /**
+     * Obtiene los campos asignados mediante setters desde la creación o desde clearDirtyFields
+     * @return conjunto inmutable de campos modificados
+     */
+    public Set<Field> getDirtyFields() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(dirtyFields));
+    }
+    
+    public boolean isDirty(Field field) {
+        return dirtyFields.contains(field);
+    }
+    
+    /**
+     * Marca todos los campos como no modificados (p. ej. tras leer o guardar el usuario)
+     */
+    public void clearDirtyFields() {
+        dirtyFields.clear();
+    }
+    
     // Métodos equals y hashCode
     @Override
     public boolean equals(Object obj) {
@@ -135,6 +194,7 @@ public class User {
                 ", insertDate=" + insertDate +
                 ", updateDate=" + updateDate +
                 ", genderName='" + genderName + '\'' +
+                ", version=" + version +
                 '}';
     }
 } 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.usermanagement.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lote de cambios de usuarios posteriores a una marca de agua
+ * Contiene los usuarios creados o modificados (estado actual) y los eliminados, junto con la
+ * marca de agua que el consumidor debe guardar y enviar en la siguiente sincronización
+ */
+public class UserChanges {
+    private final List<User> changed;
+    private final List<UserTombstone> deleted;
+    private final SyncWatermark nextWatermark;
+    private final boolean hasMore;
+    
+    // Constructor con parámetros
+    public UserChanges(List<User> changed, List<UserTombstone> deleted, SyncWatermark nextWatermark, boolean hasMore) {
+        this.changed = Collections.unmodifiableList(changed);
+        this.deleted = Collections.unmodifiableList(deleted);
+        this.nextWatermark = nextWatermark;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters
+    public List<User> getChanged() {
+        return changed;
+    }
+    
+    public List<UserTombstone> getDeleted() {
+        return deleted;
+    }
+    
+    /**
+     * Obtiene la marca de agua para la siguiente sincronización
+     * @return marca de agua; igual a la recibida si no hubo cambios
+     */
+    public SyncWatermark getNextWatermark() {
+        return nextWatermark;
+    }
+    
+    /**
+     * Indica si quedan más cambios pendientes además de este lote
+     * @return true si se debe volver a sincronizar de inmediato con la nueva marca de agua
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+    
+    public int size() {
+        return changed.size() + deleted.size();
+    }
+    
+    public boolean isEmpty() {
+        return changed.isEmpty() && deleted.isEmpty();
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "UserChanges{" +
+                "changed=" + changed.size() +
+                ", deleted=" + deleted.size() +
+                ", nextWatermark=" + nextWatermark +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+package com.usermanagement.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios de búsqueda de usuarios
+ * Los filtros nulos no se aplican; los rangos de fechas son [desde, hasta)
+ * y el rango de edad es inclusivo en ambos extremos
+ */
+public class UserSearchCriteria {
+    
+    /**
+     * Columnas por las que se puede ordenar el resultado
+     * Todas cuentan con un índice secundario; el ID desempata dentro de la misma clave
+     */
+    public enum SortField {
+        ID,
+        NAME,
+        AGE,
+        INSERT_DATE,
+        UPDATE_DATE
+    }
+    
+    private String namePrefix;
+    private String userName;
+    private Integer minAge;
+    private Integer maxAge;
+    private Integer genderId;
+    private LocalDateTime insertedFrom;
+    private LocalDateTime insertedTo;
+    private LocalDateTime updatedFrom;
+    private LocalDateTime updatedTo;
+    private SortField sortField = SortField.ID;
+    private boolean descending;
+    
+    // Constructor por defecto
+    public UserSearchCriteria() {}
+    
+    // Getters y Setters
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+    
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+    
+    public String getUserName() {
+        return userName;
+    }
+    
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+    
+    public Integer getMinAge() {
+        return minAge;
+    }
+    
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+    
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+    
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+    
+    public Integer getGenderId() {
+        return genderId;
+    }
+    
+    public void setGenderId(Integer genderId) {
+        this.genderId = genderId;
+    }
+    
+    public LocalDateTime getInsertedFrom() {
+        return insertedFrom;
+    }
+    
+    public void setInsertedFrom(LocalDateTime insertedFrom) {
+        this.insertedFrom = insertedFrom;
+    }
+    
+    public LocalDateTime getInsertedTo() {
+        return insertedTo;
+    }
+    
+    public void setInsertedTo(LocalDateTime insertedTo) {
+        this.insertedTo = insertedTo;
+    }
+    
+    public LocalDateTime getUpdatedFrom() {
+        return updatedFrom;
+    }
+    
+    public void setUpdatedFrom(LocalDateTime updatedFrom) {
+        this.updatedFrom = updatedFrom;
+    }
+    
+    public LocalDateTime getUpdatedTo() {
+        return updatedTo;
+    }
+    
+    public void setUpdatedTo(LocalDateTime updatedTo) {
+        this.updatedTo = updatedTo;
+    }
+    
+    public SortField getSortField() {
+        return sortField;
+    }
+    
+    public void setSortField(SortField sortField) {
+        this.sortField = sortField;
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "UserSearchCriteria{" +
+                "namePrefix='" + namePrefix + '\'' +
+                ", userName='" + userName + '\'' +
+                ", minAge=" + minAge +
+                ", maxAge=" + maxAge +
+                ", genderId=" + genderId +
+                ", insertedFrom=" + insertedFrom +
+                ", insertedTo=" + insertedTo +
+                ", updatedFrom=" + updatedFrom +
+                ", updatedTo=" + updatedTo +
+                ", sortField=" + sortField +
+                ", descending=" + descending +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.usermanagement.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un usuario eliminado (tabla users_tombstone, llenada por trigger)
+ */
+public class UserTombstone {
+    private final int userId;
+    private final String userName;
+    private final LocalDateTime deletedAt;
+    
+    // Constructor con parámetros
+    public UserTombstone(int userId, String userName, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.userName = userName;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters
+    public int getUserId() {
+        return userId;
+    }
+    
+    public String getUserName() {
+        return userName;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    // Método toString
+    @Override
+    public String toString() {
+        return "UserTombstone{" +
+                "userId=" + userId +
+                ", userName='" + userName + '\'' +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package com.usermanagement.service;
+
+import com.usermanagement.config.QueryScope;
+import com.usermanagement.config.ReadSession;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.util.Constants;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutor de las fachadas asíncronas de servicios
+ * Ejecuta cada llamada bloqueante (JDBC) en un hilo virtual propio cuando la JVM los ofrece (Java 21+)
+ * y, si no, en un pool fijo de hilos de plataforma. Un semáforo limita cuántas llamadas usan la base
+ * de datos a la vez, de modo que miles de peticiones en vuelo esperan turno sin saturar el pool de
+ * conexiones ni MySQL.
+ *
+ * Cancelar el CompletableFuture, o que venza su tiempo límite, interrumpe la tarea: si aún espera
+ * turno o conexión se abandona de inmediato. Como Connector/J no atiende la interrupción durante una
+ * consulta, cada llamada se ejecuta en un QueryScope: sus sentencias llevan queryTimeout con el tiempo
+ * restante y la consulta en curso se cancela en el servidor, liberando el turno y la conexión.
+ *
+ * La llamada usa la ReadSession del hilo que la envía: una lectura asíncrona ve las escrituras recientes
+ * de ese llamador aunque cada llamada se ejecute en un hilo distinto.
+ */
+public final class AsyncExecutor implements AutoCloseable {
+    
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+    
+    /**
+     * Crea un ejecutor con los parámetros por defecto definidos en Constants
+     */
+    public AsyncExecutor() {
+        this(Constants.ASYNC_MAX_CONCURRENCY);
+    }
+    
+    /**
+     * Crea un ejecutor con concurrencia explícita
+     * @param maxConcurrency número máximo de llamadas bloqueantes simultáneas
+     */
+    public AsyncExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("La concurrencia máxima debe ser mayor que 0");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformExecutor(maxConcurrency);
+    }
+    
+    /**
+     * Ejecuta una llamada bloqueante de forma asíncrona
+     * @param call llamada a ejecutar
+     * @param timeoutMillis tiempo límite de la llamada, incluida la espera de turno (0 sin límite)
+     * @param <T> tipo del resultado
+     * @return CompletableFuture completado con el resultado, con la UserManagementException de la llamada,
+     *         o con TimeoutException si vence el tiempo límite
+     */
+    public <T> CompletableFuture<T> submit(BlockingCall<T> call, long timeoutMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        QueryScope scope = new QueryScope(timeoutMillis);
+        ReadSession session = ReadSession.current();
+        Future<?> task = executor.submit(() -> run(call, scope, session, result));
+        
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException || error instanceof TimeoutException) {
+                scope.cancel();
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Indica si las tareas se ejecutan en hilos virtuales
+     * @return true si la JVM ofrece hilos virtuales
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    /**
+     * Llamadas esperando turno para usar la base de datos
+     * @return número aproximado de llamadas en espera
+     */
+    public int getQueuedCalls() {
+        return permits.getQueueLength();
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+    
+    private <T> void run(BlockingCall<T> call, QueryScope scope, ReadSession session, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            return;
+        }
+        scope.bind();
+        session.bind();
+        try {
+            if (!result.isDone()) {
+                result.complete(call.call());
+            }
+        } catch (Throwable e) {
+            // También los Error: un futuro sin completar dejaría colgado al llamador sin tiempo límite
+            result.completeExceptionally(e);
+        } finally {
+            ReadSession.unbind();
+            scope.close();
+            permits.release();
+        }
+    }
+    
+    /**
+     * Obtiene Executors.newVirtualThreadPerTaskExecutor por reflexión para compilar en Java 17
+     * @return ExecutorService de hilos virtuales, o null si la JVM no los ofrece
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Sin hilos virtuales basta un hilo por permiso: más hilos solo esperarían en el semáforo
+     */
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "async-service-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Llamada bloqueante a un servicio
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface BlockingCall<T> {
+        T call() throws UserManagementException;
+    }
+}
@@ -0,0 +1,66 @@
+package com.usermanagement.service;
+
+import com.usermanagement.model.Gender;
+import com.usermanagement.util.Constants;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fachada asíncrona de GenderServiceInterface
+ * Cada operación devuelve un CompletableFuture y se ejecuta en AsyncExecutor
+ */
+public class AsyncGenderService {
+    
+    private final GenderServiceInterface genderService;
+    private final AsyncExecutor executor;
+    private final long timeoutMillis;
+    
+    /**
+     * Constructor con el tiempo límite por defecto definido en Constants
+     * @param genderService servicio de géneros bloqueante
+     * @param executor ejecutor compartido de las fachadas asíncronas
+     */
+    public AsyncGenderService(GenderServiceInterface genderService, AsyncExecutor executor) {
+        this(genderService, executor, Constants.ASYNC_DEFAULT_TIMEOUT_MS);
+    }
+    
+    private AsyncGenderService(GenderServiceInterface genderService, AsyncExecutor executor, long timeoutMillis) {
+        this.genderService = genderService;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Obtiene una vista de esta fachada con otro tiempo límite por llamada
+     * @param timeout tiempo límite de cada llamada (Duration.ZERO sin límite)
+     * @return AsyncGenderService que comparte servicio y ejecutor
+     */
+    public AsyncGenderService withTimeout(Duration timeout) {
+        return new AsyncGenderService(genderService, executor, timeout.toMillis());
+    }
+    
+    public CompletableFuture<List<Gender>> getAllGenders() {
+        return executor.submit(genderService::getAllGenders, timeoutMillis);
+    }
+    
+    public CompletableFuture<Gender> getGenderById(int genderId) {
+        return executor.submit(() -> genderService.getGenderById(genderId), timeoutMillis);
+    }
+    
+    public CompletableFuture<Optional<Gender>> findGenderById(int genderId) {
+        return executor.submit(() -> genderService.findGenderById(genderId), timeoutMillis);
+    }
+    
+    public CompletableFuture<Boolean> genderExists(int genderId) {
+        return executor.submit(() -> genderService.genderExists(genderId), timeoutMillis);
+    }
+    
+    public CompletableFuture<Void> refreshGenders() {
+        return executor.submit(() -> {
+            genderService.refreshGenders();
+            return null;
+        }, timeoutMillis);
+    }
+}
@@ -0,0 +1,118 @@
+package com.usermanagement.service;
+
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.SyncWatermark;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserChanges;
+import com.usermanagement.model.UserSearchCriteria;
+import com.usermanagement.util.Constants;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Fachada asíncrona de UserServiceInterface
+ * Cada operación devuelve un CompletableFuture y se ejecuta en AsyncExecutor, que limita la
+ * concurrencia contra la base de datos. Los errores de negocio completan el futuro con la
+ * UserManagementException original. streamAllUsers no se expone porque el Stream mantiene
+ * una conexión abierta en el hilo que lo consume; usar forEachUser en su lugar.
+ */
+public class AsyncUserService {
+    
+    private final UserServiceInterface userService;
+    private final AsyncExecutor executor;
+    private final long timeoutMillis;
+    
+    /**
+     * Constructor con el tiempo límite por defecto definido en Constants
+     * @param userService servicio de usuarios bloqueante
+     * @param executor ejecutor compartido de las fachadas asíncronas
+     */
+    public AsyncUserService(UserServiceInterface userService, AsyncExecutor executor) {
+        this(userService, executor, Constants.ASYNC_DEFAULT_TIMEOUT_MS);
+    }
+    
+    private AsyncUserService(UserServiceInterface userService, AsyncExecutor executor, long timeoutMillis) {
+        this.userService = userService;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Obtiene una vista de esta fachada con otro tiempo límite por llamada
+     * @param timeout tiempo límite de cada llamada (Duration.ZERO sin límite)
+     * @return AsyncUserService que comparte servicio y ejecutor
+     */
+    public AsyncUserService withTimeout(Duration timeout) {
+        return new AsyncUserService(userService, executor, timeout.toMillis());
+    }
+    
+    public CompletableFuture<List<User>> getAllUsers() {
+        return executor.submit(userService::getAllUsers, timeoutMillis);
+    }
+    
+    public CompletableFuture<Void> forEachUser(Consumer<? super User> consumer) {
+        return executor.submit(() -> {
+            userService.forEachUser(consumer);
+            return null;
+        }, timeoutMillis);
+    }
+    
+    public CompletableFuture<Page<User>> getUsers(String cursor, int limit) {
+        return executor.submit(() -> userService.getUsers(cursor, limit), timeoutMillis);
+    }
+    
+    public CompletableFuture<Page<User>> searchUsers(UserSearchCriteria criteria, String cursor, int limit) {
+        return executor.submit(() -> userService.searchUsers(criteria, cursor, limit), timeoutMillis);
+    }
+    
+    public CompletableFuture<UserChanges> getChangesSince(SyncWatermark watermark, int limit) {
+        return executor.submit(() -> userService.getChangesSince(watermark, limit), timeoutMillis);
+    }
+    
+    public CompletableFuture<Integer> purgeTombstones(LocalDateTime before) {
+        return executor.submit(() -> userService.purgeTombstones(before), timeoutMillis);
+    }
+    
+    public CompletableFuture<User> getUserById(int id) {
+        return executor.submit(() -> userService.getUserById(id), timeoutMillis);
+    }
+    
+    public CompletableFuture<Optional<User>> findUserById(int id) {
+        return executor.submit(() -> userService.findUserById(id), timeoutMillis);
+    }
+    
+    public CompletableFuture<Map<Integer, User>> getUsersByIds(Collection<Integer> ids) {
+        return executor.submit(() -> userService.getUsersByIds(ids), timeoutMillis);
+    }
+    
+    public CompletableFuture<Boolean> createUser(User user) {
+        return executor.submit(() -> userService.createUser(user), timeoutMillis);
+    }
+    
+    public CompletableFuture<Integer> upsertUser(User user) {
+        return executor.submit(() -> userService.upsertUser(user), timeoutMillis);
+    }
+    
+    public CompletableFuture<BatchResult> createUsers(List<User> users) {
+        return executor.submit(() -> userService.createUsers(users), timeoutMillis);
+    }
+    
+    public CompletableFuture<Boolean> updateUser(User user) {
+        return executor.submit(() -> userService.updateUser(user), timeoutMillis);
+    }
+    
+    public CompletableFuture<Boolean> patchUser(User user) {
+        return executor.submit(() -> userService.patchUser(user), timeoutMillis);
+    }
+    
+    public CompletableFuture<Boolean> deleteUser(int id) {
+        return executor.submit(() -> userService.deleteUser(id), timeoutMillis);
+    }
+}
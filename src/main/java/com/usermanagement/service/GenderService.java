@@ -4,6 +4,7 @@ import com.usermanagement.dao.GenderDAO;
 import com.usermanagement.model.Gender;
 import com.usermanagement.exception.UserManagementException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Clase de servicio que contiene la lógica de negocio para géneros
@@ -43,7 +44,22 @@ public class GenderService implements GenderServiceInterface {
             throw UserManagementException.validationError("ID de género debe ser mayor que 0");
         }
         
-        return genderDAO.getGenderById(genderId);
+        return genderDAO.findGenderById(genderId)
+            .orElseThrow(() -> UserManagementException.genderNotFound(genderId));
+    }
+    
+    /**
+     * Busca un género por su ID sin lanzar excepción si no existe
+     * @param genderId ID del género
+     * @return Optional con el género, o vacío si no existe o el ID no es válido
+     * @throws UserManagementException si hay error al acceder a los datos
+     */
+    @Override
+    public Optional<Gender> findGenderById(int genderId) throws UserManagementException {
+        if (genderId <= 0) {
+            return Optional.empty();
+        }
+        return genderDAO.findGenderById(genderId);
     }
     
     /**
@@ -54,6 +70,18 @@ public class GenderService implements GenderServiceInterface {
      */
     @Override
     public boolean genderExists(int genderId) throws UserManagementException {
+        if (genderId <= 0) {
+            return false;
+        }
         return genderDAO.genderExists(genderId);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Recarga la caché en memoria de géneros
+     * @throws UserManagementException si hay error al leer los géneros
+     */
+    @Override
+    public void refreshGenders() throws UserManagementException {
+        genderDAO.refreshCache();
+    }
+}
@@ -3,6 +3,7 @@ package com.usermanagement.service;
 import com.usermanagement.model.Gender;
 import com.usermanagement.exception.UserManagementException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interfaz que define los contratos para el servicio de géneros
@@ -24,6 +25,14 @@ public interface GenderServiceInterface {
      */
     Gender getGenderById(int genderId) throws UserManagementException;
     
+    /**
+     * Busca un género por su ID sin lanzar excepción si no existe
+     * @param genderId ID del género
+     * @return Optional con el género, o vacío si no existe o el ID no es válido
+     * @throws UserManagementException si hay error al acceder a los datos
+     */
+    Optional<Gender> findGenderById(int genderId) throws UserManagementException;
+    
     /**
      * Verifica si existe un género con el ID especificado
      * @param genderId ID del género a verificar
@@ -31,4 +40,10 @@ public interface GenderServiceInterface {
      * @throws UserManagementException si hay error al verificar
      */
     boolean genderExists(int genderId) throws UserManagementException;
-} 
\ No newline at end of file
+    
+    /**
+     * Recarga la caché en memoria de géneros
+     * @throws UserManagementException si hay error al leer los géneros
+     */
+    void refreshGenders() throws UserManagementException;
+}
@@ -0,0 +1,153 @@
+package com.usermanagement.service;
+
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.User;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de lectura (read-through) de usuarios por ID
+ * Acotada por tamaño con expulsión LRU, con TTL por entrada y entradas negativas
+ * para IDs inexistentes. Devuelve siempre copias para que los llamadores no modifiquen la caché
+ */
+public class UserCache {
+
+    /**
+     * Carga de un usuario desde la fuente de datos
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Optional<User> load(int id) throws UserManagementException;
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Protegido por entries: se compara y se incrementa bajo el mismo bloqueo que escribe las entradas
+    private long invalidations;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /**
+     * @param maxSize número máximo de entradas
+     * @param ttlMillis vigencia de una entrada positiva
+     * @param negativeTtlMillis vigencia de una entrada negativa (ID inexistente)
+     */
+    public UserCache(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor que 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+    }
+
+    /**
+     * Obtiene un usuario de la caché o lo carga con el loader
+     * @param id ID del usuario
+     * @param loader carga desde la base de datos en caso de fallo
+     * @return Optional con una copia del usuario, o vacío si no existe
+     * @throws UserManagementException si la carga falla (los errores no se guardan en caché)
+     */
+    public Optional<User> get(int id, Loader loader) throws UserManagementException {
+        long now = System.nanoTime();
+        long invalidationsBefore;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (now - entry.expiresAt < 0) {
+                    hitCount.increment();
+                    if (entry.user == null) {
+                        negativeHitCount.increment();
+                        return Optional.empty();
+                    }
+                    return Optional.of(new User(entry.user));
+                }
+                entries.remove(id);
+            }
+            invalidationsBefore = invalidations;
+        }
+
+        missCount.increment();
+        long start = System.nanoTime();
+        Optional<User> loaded = loader.load(id);
+        long end = System.nanoTime();
+        loadCount.increment();
+        totalLoadNanos.add(end - start);
+
+        // Si hubo una invalidación durante la carga, el valor leído puede ser anterior a la escritura
+        User cached = loaded.map(User::new).orElse(null);
+        Entry entry = new Entry(cached, end + (cached != null ? ttlNanos : negativeTtlNanos));
+        synchronized (entries) {
+            if (invalidations == invalidationsBefore) {
+                entries.put(id, entry);
+                evictOverflow();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida un usuario; debe llamarse de forma síncrona tras cada escritura
+     * @param id ID del usuario
+     */
+    public void invalidate(int id) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * Vacía la caché
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas de la caché
+     * @return UserCacheStats con aciertos, fallos, expulsiones y latencia de carga
+     */
+    public UserCacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new UserCacheStats(size, hitCount.sum(), negativeHitCount.sum(), missCount.sum(),
+            evictionCount.sum(), loadCount.sum(), totalLoadNanos.sum());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * Entrada de la caché; user es null en las entradas negativas
+     */
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.usermanagement.service;
+
+/**
+ * Instantánea inmutable de las métricas de la caché de usuarios
+ */
+public final class UserCacheStats {
+
+    private final int size;
+    private final long hitCount;
+    private final long negativeHitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long loadCount;
+    private final long totalLoadNanos;
+
+    UserCacheStats(int size, long hitCount, long negativeHitCount, long missCount,
+                   long evictionCount, long loadCount, long totalLoadNanos) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.negativeHitCount = negativeHitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadNanos = totalLoadNanos;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Aciertos totales, incluidos los aciertos negativos (IDs que se sabe que no existen)
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public double getHitRatio() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public double getAverageLoadMillis() {
+        return loadCount == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCacheStats{" +
+                "size=" + size +
+                ", hits=" + hitCount +
+                ", negativeHits=" + negativeHitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", avgLoadMs=" + String.format("%.3f", getAverageLoadMillis()) +
+                '}';
+    }
+}
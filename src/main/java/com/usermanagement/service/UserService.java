@@ -1,11 +1,40 @@
 package com.usermanagement.service;
 
+import com.usermanagement.config.UnitOfWork;
 import com.usermanagement.dao.UserDAO;
 import com.usermanagement.dao.GenderDAO;
+import com.usermanagement.dao.GenderSnapshot;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.SyncWatermark;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserChanges;
+import com.usermanagement.model.UserSearchCriteria;
+import com.usermanagement.model.UserTombstone;
 import com.usermanagement.exception.UserManagementException;
 import com.usermanagement.util.Constants;
+import com.usermanagement.util.CursorCodec;
+import com.usermanagement.util.SqlUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Clase de servicio que contiene la lógica de negocio para usuarios
@@ -13,8 +42,23 @@ import java.util.List;
  */
 public class UserService implements UserServiceInterface {
     
+    /**
+     * Cómo verifica createUser el nombre de usuario y el género antes del INSERT
+     */
+    public enum PreWriteCheckMode {
+        /** Sin consultas previas: las restricciones UNIQUE y FOREIGN KEY del INSERT deciden (un viaje) */
+        ATOMIC,
+        /** Las dos verificaciones en paralelo, cada una con su conexión del pool */
+        PARALLEL,
+        /** Las dos verificaciones en una sola consulta, con una sola conexión */
+        COMBINED
+    }
+    
     private final UserDAO userDAO;
     private final GenderDAO genderDAO;
+    private final UserCache userCache;
+    private final PreWriteCheckMode preWriteCheckMode;
+    private final AsyncExecutor checkExecutor;
     
     /**
      * Constructor que recibe los DAOs por inyección de dependencias
@@ -22,8 +66,37 @@ public class UserService implements UserServiceInterface {
      * @param genderDAO DAO de géneros
      */
     public UserService(UserDAO userDAO, GenderDAO genderDAO) {
+        this(userDAO, genderDAO, null);
+    }
+    
+    /**
+     * Constructor que además recibe la caché de lectura de usuarios
+     * @param userDAO DAO de usuarios
+     * @param genderDAO DAO de géneros
+     * @param userCache caché de usuarios por ID, o null para desactivarla
+     */
+    public UserService(UserDAO userDAO, GenderDAO genderDAO, UserCache userCache) {
+        this(userDAO, genderDAO, userCache, PreWriteCheckMode.ATOMIC, null);
+    }
+    
+    /**
+     * Constructor que además elige cómo se verifican las altas antes del INSERT
+     * @param userDAO DAO de usuarios
+     * @param genderDAO DAO de géneros
+     * @param userCache caché de usuarios por ID, o null para desactivarla
+     * @param preWriteCheckMode modo de verificación previa de createUser
+     * @param checkExecutor ejecutor de las verificaciones en paralelo (obligatorio en modo PARALLEL)
+     */
+    public UserService(UserDAO userDAO, GenderDAO genderDAO, UserCache userCache,
+                       PreWriteCheckMode preWriteCheckMode, AsyncExecutor checkExecutor) {
+        if (preWriteCheckMode == PreWriteCheckMode.PARALLEL && checkExecutor == null) {
+            throw new IllegalArgumentException("El modo PARALLEL requiere un AsyncExecutor");
+        }
         this.userDAO = userDAO;
         this.genderDAO = genderDAO;
+        this.userCache = userCache;
+        this.preWriteCheckMode = preWriteCheckMode;
+        this.checkExecutor = checkExecutor;
     }
     
     /**
@@ -36,6 +109,155 @@ public class UserService implements UserServiceInterface {
         return userDAO.getAllUsers();
     }
     
+    /**
+     * Recorre todos los usuarios sin cargarlos en memoria
+     * El Stream mantiene una conexión ocupada y DEBE cerrarse (try-with-resources)
+     * @return Stream de usuarios
+     * @throws UserManagementException si hay error al iniciar el recorrido
+     */
+    @Override
+    public Stream<User> streamAllUsers() throws UserManagementException {
+        return userDAO.streamAllUsers();
+    }
+    
+    /**
+     * Recorre todos los usuarios entregándolos uno a uno a un consumidor
+     * @param consumer consumidor invocado por cada usuario
+     * @throws UserManagementException si hay error al leer los usuarios
+     */
+    @Override
+    public void forEachUser(Consumer<? super User> consumer) throws UserManagementException {
+        userDAO.forEachUser(consumer);
+    }
+    
+    /**
+     * Obtiene una página de usuarios ordenada por ID
+     * @param cursor cursor devuelto por la página anterior, o null para la primera página
+     * @param limit número máximo de usuarios por página
+     * @return Page con los usuarios y el cursor de la página siguiente
+     * @throws UserManagementException si el cursor o el límite no son válidos o hay error
+     */
+    @Override
+    public Page<User> getUsers(String cursor, int limit) throws UserManagementException {
+        if (limit <= 0 || limit > Constants.MAX_PAGE_SIZE) {
+            throw UserManagementException.validationError(
+                "El tamaño de página debe estar entre 1 y " + Constants.MAX_PAGE_SIZE);
+        }
+        
+        int afterId = 0;
+        if (!SqlUtils.isNullOrEmpty(cursor)) {
+            try {
+                afterId = CursorCodec.decodeId(cursor);
+            } catch (IllegalArgumentException e) {
+                throw UserManagementException.validationError("Cursor de paginación inválido");
+            }
+        }
+        
+        // Se pide una fila extra para saber si existe una página siguiente
+        List<User> users = userDAO.getUsersAfter(afterId, limit + 1);
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = CursorCodec.encodeId(users.get(limit - 1).getId());
+        }
+        return new Page<>(users, nextCursor);
+    }
+    
+    /**
+     * Busca usuarios por criterios, paginando por clave sobre (columna de orden, id)
+     * El cursor guarda el orden, la dirección y la posición de la última fila; solo es válido
+     * para una búsqueda con el mismo orden y dirección
+     * @param criteria filtros y orden de la búsqueda
+     * @param cursor cursor devuelto por la página anterior, o null para la primera página
+     * @param limit número máximo de usuarios por página
+     * @return Page con los usuarios y el cursor de la página siguiente
+     * @throws UserManagementException si los criterios, el cursor o el límite no son válidos o hay error
+     */
+    @Override
+    public Page<User> searchUsers(UserSearchCriteria criteria, String cursor, int limit) throws UserManagementException {
+        if (limit <= 0 || limit > Constants.MAX_PAGE_SIZE) {
+            throw UserManagementException.validationError(
+                "El tamaño de página debe estar entre 1 y " + Constants.MAX_PAGE_SIZE);
+        }
+        validateSearchCriteria(criteria);
+        
+        User after = null;
+        if (!SqlUtils.isNullOrEmpty(cursor)) {
+            try {
+                after = decodeSearchCursor(cursor, criteria);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw UserManagementException.validationError("Cursor de búsqueda inválido");
+            }
+        }
+        
+        // Se pide una fila extra para saber si existe una página siguiente
+        List<User> users = userDAO.searchUsers(criteria, after, limit + 1);
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = encodeSearchCursor(users.get(limit - 1), criteria);
+        }
+        return new Page<>(users, nextCursor);
+    }
+    
+    /**
+     * Obtiene los cambios de usuarios posteriores a una marca de agua
+     * Mezcla en orden (instante, id) las filas modificadas de users y los borrados de users_tombstone,
+     * de modo que una sola marca de agua cubre ambos flujos y el coste es proporcional a los cambios
+     * @param watermark marca de agua devuelta por la sincronización anterior, o null para la primera
+     * @param limit número máximo de cambios del lote
+     * @return UserChanges con los cambios en orden y la siguiente marca de agua
+     * @throws UserManagementException si el límite no es válido o hay error
+     */
+    @Override
+    public UserChanges getChangesSince(SyncWatermark watermark, int limit) throws UserManagementException {
+        if (limit <= 0 || limit > Constants.SYNC_MAX_BATCH_SIZE) {
+            throw UserManagementException.validationError(
+                "El tamaño del lote de sincronización debe estar entre 1 y " + Constants.SYNC_MAX_BATCH_SIZE);
+        }
+        SyncWatermark from = watermark != null ? watermark : SyncWatermark.INITIAL;
+        
+        // Se pide una fila extra de cada flujo para saber si quedan cambios
+        List<User> users = userDAO.getUsersChangedAfter(from, limit + 1);
+        List<UserTombstone> tombstones = userDAO.getTombstonesAfter(from, limit + 1);
+        
+        List<User> changed = new ArrayList<>();
+        List<UserTombstone> deleted = new ArrayList<>();
+        SyncWatermark last = from;
+        int u = 0;
+        int t = 0;
+        while (changed.size() + deleted.size() < limit && (u < users.size() || t < tombstones.size())) {
+            SyncWatermark userKey = u < users.size()
+                ? new SyncWatermark(users.get(u).getUpdateDate(), users.get(u).getId()) : null;
+            SyncWatermark tombstoneKey = t < tombstones.size()
+                ? new SyncWatermark(tombstones.get(t).getDeletedAt(), tombstones.get(t).getUserId()) : null;
+            if (tombstoneKey == null || (userKey != null && userKey.compareTo(tombstoneKey) <= 0)) {
+                changed.add(users.get(u++));
+                last = userKey;
+            } else {
+                deleted.add(tombstones.get(t++));
+                last = tombstoneKey;
+            }
+        }
+        
+        boolean hasMore = u < users.size() || t < tombstones.size();
+        return new UserChanges(changed, deleted, last, hasMore);
+    }
+    
+    /**
+     * Elimina los registros de usuarios eliminados anteriores a una fecha
+     * @param before fecha límite (exclusiva)
+     * @return número de registros eliminados
+     * @throws UserManagementException si la fecha es nula o hay error
+     */
+    @Override
+    public int purgeTombstones(LocalDateTime before) throws UserManagementException {
+        if (before == null) {
+            throw UserManagementException.validationError("La fecha límite es obligatoria");
+        }
+        return userDAO.purgeTombstones(before);
+    }
+    
     /**
      * Obtiene un usuario por su ID
      * @param id ID del usuario
@@ -48,67 +270,239 @@ public class UserService implements UserServiceInterface {
             throw UserManagementException.validationError("ID debe ser mayor que 0");
         }
         
-        return userDAO.getUserById(id);
+        return loadUser(id).orElseThrow(() -> UserManagementException.userNotFound(id));
+    }
+    
+    /**
+     * Busca un usuario por su ID sin lanzar excepción si no existe
+     * @param id ID del usuario
+     * @return Optional con el usuario, o vacío si no existe o el ID no es válido
+     * @throws UserManagementException si hay error al acceder a los datos
+     */
+    @Override
+    public Optional<User> findUserById(int id) throws UserManagementException {
+        if (id <= 0) {
+            return Optional.empty();
+        }
+        return loadUser(id);
+    }
+    
+    /**
+     * Obtiene varios usuarios por su ID en pocas consultas
+     * Los IDs no válidos (null o menores que 1) se tratan como inexistentes
+     * @param ids IDs de los usuarios a buscar
+     * @return mapa de ID a usuario en el orden de entrada; los IDs inexistentes se omiten
+     * @throws UserManagementException si la colección es null o hay error
+     */
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) throws UserManagementException {
+        if (ids == null) {
+            throw UserManagementException.validationError("La colección de IDs no puede ser null");
+        }
+        
+        List<Integer> validIds = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            if (SqlUtils.isValidId(id)) {
+                validIds.add(id);
+            }
+        }
+        if (validIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return userDAO.getUsersByIds(validIds);
     }
     
     /**
      * Crea un nuevo usuario con validaciones
+     * La unicidad del nombre de usuario y la existencia del género se comprueban en el propio INSERT;
+     * según PreWriteCheckMode también pueden verificarse antes, en paralelo o en una consulta combinada
      * @param user usuario a crear
      * @return true si se creó correctamente
      * @throws UserManagementException si hay error de validación o al crear
      */
     @Override
     public boolean createUser(User user) throws UserManagementException {
-        validateUser(user);
+        UserValidator.validateUser(user);
 
         //Check end praxisglobe.com
         
-        if (userDAO.userNameExists(user.getUserName())) {
-            throw UserManagementException.userAlreadyExists(user.getUserName());
+        checkGenderInMemory(user.getGenderId());
+        verifyCreatable(user);
+        
+        // El índice UNIQUE de user_name sigue detectando de forma atómica los duplicados concurrentes
+        int userId = userDAO.createUser(user);
+        // Puede existir una entrada negativa para el ID recién asignado
+        invalidateCache(userId);
+        return userId > 0;
+    }
+    
+    /**
+     * Crea un usuario o actualiza el existente con el mismo nombre de usuario
+     * @param user usuario a sincronizar
+     * @return ID del usuario creado o actualizado
+     * @throws UserManagementException si hay error de validación o de base de datos
+     */
+    @Override
+    public int upsertUser(User user) throws UserManagementException {
+        UserValidator.validateUser(user);
+        checkGenderInMemory(user.getGenderId());
+        
+        int userId = userDAO.upsertUser(user);
+        invalidateCache(userId);
+        return userId;
+    }
+    
+    /**
+     * Crea varios usuarios en lote con validaciones
+     * La unicidad de nombres de usuario y la existencia de géneros se verifican con consultas
+     * por conjunto en lugar de dos consultas por fila
+     * @param users usuarios a crear
+     * @return BatchResult con los IDs generados en el orden de entrada y los errores por fila
+     * @throws UserManagementException si la lista es inválida o hay error de base de datos
+     */
+    @Override
+    public BatchResult createUsers(List<User> users) throws UserManagementException {
+        if (users == null || users.isEmpty()) {
+            throw UserManagementException.validationError("La lista de usuarios no puede estar vacía");
         }
         
-        if (user.getGenderId() != null && !genderDAO.genderExists(user.getGenderId())) {
-            throw UserManagementException.genderNotFound(user.getGenderId());
+        BatchResult result = new BatchResult(users.size());
+        
+        // 1. Validación de campos y duplicados dentro del propio lote
+        // (la colación de user_name no distingue mayúsculas)
+        Map<String, Integer> indexByUserName = new HashMap<>();
+        Set<Integer> genderIds = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            try {
+                UserValidator.validateUser(user);
+            } catch (UserManagementException e) {
+                result.addFailure(i, e);
+                continue;
+            }
+            if (indexByUserName.putIfAbsent(user.getUserName().toLowerCase(Locale.ROOT), i) != null) {
+                result.addFailure(i, UserManagementException.userAlreadyExists(user.getUserName()));
+                continue;
+            }
+            if (user.getGenderId() != null) {
+                genderIds.add(user.getGenderId());
+            }
         }
         
-        int userId = userDAO.createUser(user);
-        return userId > 0;
+        // 2. Verificaciones por conjunto
+        Set<String> existingUserNames = new HashSet<>();
+        for (String userName : userDAO.findExistingUserNames(indexByUserName.keySet())) {
+            existingUserNames.add(userName.toLowerCase(Locale.ROOT));
+        }
+        Set<Integer> existingGenderIds = genderDAO.findExistingGenderIds(genderIds);
+        
+        List<User> toInsert = new ArrayList<>();
+        List<Integer> inputIndexes = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            if (result.isFailed(i)) {
+                continue;
+            }
+            User user = users.get(i);
+            if (existingUserNames.contains(user.getUserName().toLowerCase(Locale.ROOT))) {
+                result.addFailure(i, UserManagementException.userAlreadyExists(user.getUserName()));
+            } else if (user.getGenderId() != null && !existingGenderIds.contains(user.getGenderId())) {
+                result.addFailure(i, UserManagementException.genderNotFound(user.getGenderId()));
+            } else {
+                toInsert.add(user);
+                inputIndexes.add(i);
+            }
+        }
+        
+        // 3. Inserción por lotes y traslado de resultados a las posiciones de entrada
+        BatchResult inserted = userDAO.createUsers(toInsert);
+        for (int j = 0; j < toInsert.size(); j++) {
+            int index = inputIndexes.get(j);
+            if (inserted.isFailed(j)) {
+                result.addFailure(index, inserted.getFailures().get(j));
+            } else {
+                result.setGeneratedId(index, inserted.getGeneratedId(j));
+                invalidateCache(inserted.getGeneratedId(j));
+            }
+        }
+        
+        return result;
     }
     
     /**
      * Actualiza un usuario existente con validaciones
+     * Las validaciones de campos no requieren E/S y se ejecutan primero; la existencia del usuario,
+     * la unicidad del nombre de usuario y el género se verifican dentro de la transacción del UPDATE.
+     * Si el usuario trae versión, una versión obsoleta produce ErrorType.CONCURRENT_MODIFICATION
      * @param user usuario a actualizar
      * @return true si se actualizó correctamente
      * @throws UserManagementException si hay error de validación o al actualizar
      */
     @Override
     public boolean updateUser(User user) throws UserManagementException {
-        if (user.getId() == null || user.getId() <= 0) {
+        if (user == null || user.getId() == null || user.getId() <= 0) {
             throw UserManagementException.validationError("ID de usuario inválido");
         }
         
-        // Verificar que el usuario existe
-        userDAO.getUserById(user.getId());
-        
-        validateUser(user);
+        UserValidator.validateUser(user);
         
-        // Verificar si el nombre de usuario ya existe en otro usuario
-        User existingUser = userDAO.getUserById(user.getId());
-        if (!existingUser.getUserName().equals(user.getUserName()) 
-            && userDAO.userNameExists(user.getUserName())) {
-            throw UserManagementException.userAlreadyExists(user.getUserName());
+        int userId = user.getId();
+        try {
+            if (user.getVersion() != null) {
+                // Concurrencia optimista: un único UPDATE con compare-and-set de la versión.
+                // La unicidad del nombre la garantiza el índice UNIQUE y el género la clave foránea
+                userDAO.updateUser(user);
+            } else {
+                userDAO.updateUserChecked(user);
+            }
+        } finally {
+            invalidateCache(userId);
+        }
+        return true;
+    }
+    
+    /**
+     * Actualiza solo los campos modificados de un usuario
+     * Solo se validan los campos modificados. La verificación de género solo se hace si cambia gender_id
+     * (en memoria si la caché de géneros está cargada, si no por la clave foránea) y la unicidad del
+     * nombre de usuario solo interviene si cambia user_name (índice UNIQUE), sin consultas previas
+     * @param user usuario con el ID, los campos asignados por setter y opcionalmente la versión
+     * @return true si se actualizó correctamente
+     * @throws UserManagementException si hay error de validación o al actualizar
+     */
+    @Override
+    public boolean patchUser(User user) throws UserManagementException {
+        if (user == null || user.getId() == null || user.getId() <= 0) {
+            throw UserManagementException.validationError("ID de usuario inválido");
+        }
+        if (user.getDirtyFields().isEmpty()) {
+            throw UserManagementException.validationError("No hay campos para actualizar");
         }
         
-        if (user.getGenderId() != null && !genderDAO.genderExists(user.getGenderId())) {
-            throw UserManagementException.genderNotFound(user.getGenderId());
+        if (user.isDirty(User.Field.NAME)) {
+            UserValidator.validateName(user.getName());
+        }
+        if (user.isDirty(User.Field.AGE)) {
+            UserValidator.validateAge(user.getAge());
+        }
+        if (user.isDirty(User.Field.USER_NAME)) {
+            UserValidator.validateUserName(user.getUserName());
+        }
+        if (user.isDirty(User.Field.GENDER_ID)) {
+            checkGenderInMemory(user.getGenderId());
         }
         
-        userDAO.updateUser(user);
+        int userId = user.getId();
+        try {
+            userDAO.patchUser(user);
+        } finally {
+            invalidateCache(userId);
+        }
         return true;
     }
     
     /**
      * Elimina un usuario por su ID
+     * La existencia se comprueba con el número de filas afectadas por el DELETE, sin lectura previa
      * @param id ID del usuario a eliminar
      * @return true si se eliminó correctamente
      * @throws UserManagementException si el usuario no existe o hay error al eliminar
@@ -119,48 +513,222 @@ public class UserService implements UserServiceInterface {
             throw UserManagementException.validationError("ID debe ser mayor que 0");
         }
         
-        // Verificar que el usuario existe
-        userDAO.getUserById(id);
-        
-        userDAO.deleteUser(id);
+        try {
+            userDAO.deleteUser(id);
+        } finally {
+            invalidateCache(id);
+        }
         return true;
     }
     
     /**
-     * Valida los datos de un usuario
-     * @param user usuario a validar
-     * @throws UserManagementException si la validación falla
+     * Obtiene las métricas de la caché de usuarios
+     * @return UserCacheStats, o null si la caché está desactivada
      */
-    private void validateUser(User user) throws UserManagementException {
-        if (user == null) {
-            throw UserManagementException.validationError("Usuario no puede ser null");
+    public UserCacheStats getCacheStats() {
+        return userCache != null ? userCache.getStats() : null;
+    }
+    
+    private void validateSearchCriteria(UserSearchCriteria criteria) throws UserManagementException {
+        if (criteria == null || criteria.getSortField() == null) {
+            throw UserManagementException.validationError("Los criterios de búsqueda y el orden son obligatorios");
         }
-        
-        if (user.getName() == null || user.getName().trim().isEmpty()) {
-            throw UserManagementException.validationError("Nombre es obligatorio");
+        if (criteria.getNamePrefix() != null && criteria.getNamePrefix().trim().isEmpty()) {
+            throw UserManagementException.validationError("El prefijo de nombre no puede estar vacío");
         }
-        
-        if (user.getName().length() < Constants.MIN_NAME_LENGTH || 
-            user.getName().length() > Constants.MAX_NAME_LENGTH) {
-            throw UserManagementException.validationError(
-                "Nombre debe tener entre " + Constants.MIN_NAME_LENGTH + 
-                " y " + Constants.MAX_NAME_LENGTH + " caracteres");
+        if (criteria.getUserName() != null && criteria.getUserName().trim().isEmpty()) {
+            throw UserManagementException.validationError("El nombre de usuario no puede estar vacío");
         }
-        
-        if (user.getAge() != null && (user.getAge() < Constants.MIN_AGE || user.getAge() > Constants.MAX_AGE)) {
-            throw UserManagementException.validationError(
-                "Edad debe estar entre " + Constants.MIN_AGE + " y " + Constants.MAX_AGE);
+        if (criteria.getMinAge() != null && criteria.getMaxAge() != null
+            && criteria.getMinAge() > criteria.getMaxAge()) {
+            throw UserManagementException.validationError("La edad mínima no puede ser mayor que la máxima");
+        }
+        if (criteria.getInsertedFrom() != null && criteria.getInsertedTo() != null
+            && !criteria.getInsertedFrom().isBefore(criteria.getInsertedTo())) {
+            throw UserManagementException.validationError("El rango de fechas de alta está vacío");
+        }
+        if (criteria.getUpdatedFrom() != null && criteria.getUpdatedTo() != null
+            && !criteria.getUpdatedFrom().isBefore(criteria.getUpdatedTo())) {
+            throw UserManagementException.validationError("El rango de fechas de modificación está vacío");
+        }
+    }
+    
+    /**
+     * Codifica la posición de la última fila de una página de búsqueda
+     * El valor de orden va en Base64 porque puede contener el separador del cursor; "n" representa NULL
+     */
+    private static String encodeSearchCursor(User last, UserSearchCriteria criteria) {
+        String value;
+        switch (criteria.getSortField()) {
+            case NAME:
+                value = last.getName();
+                break;
+            case AGE:
+                value = last.getAge() != null ? last.getAge().toString() : null;
+                break;
+            case INSERT_DATE:
+                value = last.getInsertDate() != null ? last.getInsertDate().toString() : null;
+                break;
+            case UPDATE_DATE:
+                value = last.getUpdateDate() != null ? last.getUpdateDate().toString() : null;
+                break;
+            default:
+                value = last.getId().toString();
+                break;
+        }
+        String token = value == null ? "n" : "v" + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        return CursorCodec.encode(criteria.getSortField().name(), criteria.isDescending() ? "desc" : "asc",
+            token, last.getId().toString());
+    }
+    
+    /**
+     * Decodifica un cursor de búsqueda en una fila "anterior" con el ID y el valor de orden
+     * @throws IllegalArgumentException si el cursor no es válido o corresponde a otro orden
+     */
+    private static User decodeSearchCursor(String cursor, UserSearchCriteria criteria) {
+        String[] parts = CursorCodec.decode(cursor, 4);
+        if (!criteria.getSortField().name().equals(parts[0])
+            || !(criteria.isDescending() ? "desc" : "asc").equals(parts[1])) {
+            throw new IllegalArgumentException("El cursor corresponde a otro orden de búsqueda");
         }
         
-        if (user.getUserName() == null || user.getUserName().trim().isEmpty()) {
-            throw UserManagementException.validationError("Nombre de usuario es obligatorio");
+        User after = new User();
+        after.setId(Integer.parseInt(parts[3]));
+        if (parts[2].equals("n")) {
+            return after;
+        }
+        if (!parts[2].startsWith("v")) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String value = new String(Base64.getUrlDecoder().decode(parts[2].substring(1)), StandardCharsets.UTF_8);
+        switch (criteria.getSortField()) {
+            case NAME:
+                after.setName(value);
+                break;
+            case AGE:
+                after.setAge(Integer.valueOf(value));
+                break;
+            case INSERT_DATE:
+                after.setInsertDate(LocalDateTime.parse(value));
+                break;
+            case UPDATE_DATE:
+                after.setUpdateDate(LocalDateTime.parse(value));
+                break;
+            default:
+                break;
+        }
+        return after;
+    }
+    
+    /**
+     * Verificaciones previas al INSERT de createUser según el modo configurado
+     * Precedencia de errores: nombre de usuario ocupado antes que género inexistente
+     */
+    private void verifyCreatable(User user) throws UserManagementException {
+        switch (preWriteCheckMode) {
+            case COMBINED:
+                userDAO.verifyCreatable(user.getUserName(), user.getGenderId());
+                break;
+            case PARALLEL:
+                verifyCreatableInParallel(user);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Ejecuta en paralelo la verificación del nombre de usuario y la del género
+     * El nombre de usuario se verifica en el hilo llamador y solo el género se envía al ejecutor.
+     * Si la verificación del género aún no empezó cuando termina la del nombre, el llamador la reclama
+     * y la ejecuta él mismo: nunca espera una tarea en cola, de modo que compartir el ejecutor con
+     * AsyncUserService no puede bloquear los permisos esperando verificaciones que no llegan a correr.
+     * Un nombre ocupado detiene la verificación y cancela la otra; un género inexistente solo se informa
+     * cuando se sabe que el nombre está libre, para conservar la precedencia
+     */
+    private void verifyCreatableInParallel(User user) throws UserManagementException {
+        Integer genderId = user.getGenderId();
+        if (genderId == null || genderDAO.getSnapshot() != null) {
+            // El género ya se verificó en memoria: solo queda una consulta
+            if (userDAO.userNameExists(user.getUserName())) {
+                throw UserManagementException.userAlreadyExists(user.getUserName());
+            }
+            return;
         }
         
-        if (user.getUserName().length() < Constants.MIN_USERNAME_LENGTH || 
-            user.getUserName().length() > Constants.MAX_USERNAME_LENGTH) {
-            throw UserManagementException.validationError(
-                "Nombre de usuario debe tener entre " + Constants.MIN_USERNAME_LENGTH + 
-                " y " + Constants.MAX_USERNAME_LENGTH + " caracteres");
+        AtomicBoolean genderCheckClaimed = new AtomicBoolean();
+        CompletableFuture<Boolean> genderExists = checkExecutor.submit(
+            () -> genderCheckClaimed.compareAndSet(false, true) ? genderDAO.genderExists(genderId) : null,
+            Constants.ASYNC_DEFAULT_TIMEOUT_MS);
+        try {
+            if (userDAO.userNameExists(user.getUserName())) {
+                throw UserManagementException.userAlreadyExists(user.getUserName());
+            }
+            boolean exists = genderCheckClaimed.compareAndSet(false, true)
+                ? genderDAO.genderExists(genderId)
+                : awaitCheck(genderExists);
+            if (!exists) {
+                throw UserManagementException.genderNotFound(genderId);
+            }
+        } finally {
+            genderExists.cancel(true);
+        }
+    }
+    
+    private static boolean awaitCheck(CompletableFuture<Boolean> check) throws UserManagementException {
+        try {
+            return check.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UserManagementException) {
+                throw (UserManagementException) e.getCause();
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw UserManagementException.databaseError("Tiempo de espera agotado en la verificación previa", e.getCause());
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Rechaza un género inexistente sin E/S cuando la caché de géneros está cargada
+     * Sin caché la verificación queda a cargo de la clave foránea en la escritura
+     */
+    private void checkGenderInMemory(Integer genderId) throws UserManagementException {
+        if (genderId == null) {
+            return;
+        }
+        GenderSnapshot genders = genderDAO.getSnapshot();
+        if (genders != null && !genders.contains(genderId)) {
+            throw UserManagementException.genderNotFound(genderId);
+        }
+    }
+    
+    /**
+     * Lee un usuario a través de la caché si está activa
+     * La caché se llena siempre desde el primario: una réplica atrasada dejaría en ella, durante todo el TTL,
+     * la fila anterior a una escritura que acaba de invalidarla
+     */
+    private Optional<User> loadUser(int id) throws UserManagementException {
+        // Dentro de una unidad de trabajo la lectura debe ver los cambios aún no confirmados
+        if (userCache == null || UnitOfWork.current() != null) {
+            return userDAO.findUserById(id);
+        }
+        return userCache.get(id, userDAO::findUserByIdOnPrimary);
+    }
+    
+    /**
+     * Invalida un usuario de la caché de forma síncrona tras una escritura
+     * Dentro de una unidad de trabajo se invalida otra vez al terminar la transacción, para descartar
+     * lo que otro hilo haya cargado desde la base de datos antes del COMMIT
+     */
+    private void invalidateCache(int id) {
+        if (userCache != null) {
+            userCache.invalidate(id);
+            UnitOfWork unit = UnitOfWork.current();
+            if (unit != null) {
+                unit.afterCompletion(() -> userCache.invalidate(id));
+            }
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,8 +1,19 @@
 package com.usermanagement.service;
 
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.SyncWatermark;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserChanges;
+import com.usermanagement.model.UserSearchCriteria;
 import com.usermanagement.exception.UserManagementException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que define los contratos para el servicio de usuarios
@@ -16,6 +27,57 @@ public interface UserServiceInterface {
      */
     List<User> getAllUsers() throws UserManagementException;
     
+    /**
+     * Recorre todos los usuarios sin cargarlos en memoria
+     * El Stream mantiene una conexión ocupada y DEBE cerrarse (try-with-resources)
+     * @return Stream de usuarios
+     * @throws UserManagementException si hay error al iniciar el recorrido
+     */
+    Stream<User> streamAllUsers() throws UserManagementException;
+    
+    /**
+     * Recorre todos los usuarios entregándolos uno a uno a un consumidor
+     * @param consumer consumidor invocado por cada usuario
+     * @throws UserManagementException si hay error al leer los usuarios
+     */
+    void forEachUser(Consumer<? super User> consumer) throws UserManagementException;
+    
+    /**
+     * Obtiene una página de usuarios ordenada por ID
+     * @param cursor cursor devuelto por la página anterior, o null para la primera página
+     * @param limit número máximo de usuarios por página
+     * @return Page con los usuarios y el cursor de la página siguiente
+     * @throws UserManagementException si el cursor o el límite no son válidos o hay error
+     */
+    Page<User> getUsers(String cursor, int limit) throws UserManagementException;
+    
+    /**
+     * Busca usuarios por criterios, paginando por clave sobre el orden pedido
+     * @param criteria filtros y orden de la búsqueda
+     * @param cursor cursor devuelto por la página anterior de la misma búsqueda, o null para la primera página
+     * @param limit número máximo de usuarios por página
+     * @return Page con los usuarios y el cursor de la página siguiente
+     * @throws UserManagementException si los criterios, el cursor o el límite no son válidos o hay error
+     */
+    Page<User> searchUsers(UserSearchCriteria criteria, String cursor, int limit) throws UserManagementException;
+    
+    /**
+     * Obtiene los usuarios creados, modificados o eliminados después de una marca de agua
+     * @param watermark marca de agua devuelta por la sincronización anterior, o null para la primera
+     * @param limit número máximo de cambios del lote
+     * @return UserChanges con los cambios en orden y la siguiente marca de agua
+     * @throws UserManagementException si el límite no es válido o hay error
+     */
+    UserChanges getChangesSince(SyncWatermark watermark, int limit) throws UserManagementException;
+    
+    /**
+     * Elimina los registros de usuarios eliminados anteriores a una fecha
+     * @param before fecha límite (exclusiva)
+     * @return número de registros eliminados
+     * @throws UserManagementException si hay error
+     */
+    int purgeTombstones(LocalDateTime before) throws UserManagementException;
+    
     /**
      * Obtiene un usuario por su ID
      * @param id ID del usuario
@@ -24,6 +86,22 @@ public interface UserServiceInterface {
      */
     User getUserById(int id) throws UserManagementException;
     
+    /**
+     * Busca un usuario por su ID sin lanzar excepción si no existe
+     * @param id ID del usuario
+     * @return Optional con el usuario, o vacío si no existe o el ID no es válido
+     * @throws UserManagementException si hay error al acceder a los datos
+     */
+    Optional<User> findUserById(int id) throws UserManagementException;
+    
+    /**
+     * Obtiene varios usuarios por su ID en pocas consultas
+     * @param ids IDs de los usuarios a buscar
+     * @return mapa de ID a usuario en el orden de entrada; los IDs inexistentes se omiten
+     * @throws UserManagementException si la colección es null o hay error
+     */
+    Map<Integer, User> getUsersByIds(Collection<Integer> ids) throws UserManagementException;
+    
     /**
      * Crea un nuevo usuario con validaciones
      * @param user usuario a crear
@@ -32,6 +110,24 @@ public interface UserServiceInterface {
      */
     boolean createUser(User user) throws UserManagementException;
     
+    /**
+     * Crea un usuario o actualiza el existente con el mismo nombre de usuario (modo upsert)
+     * Pensado para trabajos de sincronización idempotentes
+     * @param user usuario a sincronizar
+     * @return ID del usuario creado o actualizado
+     * @throws UserManagementException si hay error de validación o de base de datos
+     */
+    int upsertUser(User user) throws UserManagementException;
+    
+    /**
+     * Crea varios usuarios en lote con validaciones
+     * Las filas inválidas se reportan individualmente sin impedir la creación del resto
+     * @param users usuarios a crear
+     * @return BatchResult con los IDs generados en el orden de entrada y los errores por fila
+     * @throws UserManagementException si la lista es inválida o hay error de base de datos
+     */
+    BatchResult createUsers(List<User> users) throws UserManagementException;
+    
     /**
      * Actualiza un usuario existente con validaciones
      * @param user usuario a actualizar
@@ -40,6 +136,14 @@ public interface UserServiceInterface {
      */
     boolean updateUser(User user) throws UserManagementException;
     
+    /**
+     * Actualiza solo los campos modificados de un usuario (asignados por setter)
+     * @param user usuario con el ID, los campos a modificar y opcionalmente la versión
+     * @return true si se actualizó correctamente
+     * @throws UserManagementException si hay error de validación o al actualizar
+     */
+    boolean patchUser(User user) throws UserManagementException;
+    
     /**
      * Elimina un usuario por su ID
      * @param id ID del usuario a eliminar
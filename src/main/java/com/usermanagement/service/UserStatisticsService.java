@@ -0,0 +1,137 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.GenderDAO;
+import com.usermanagement.dao.UserStatisticsDAO;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.Gender;
+import com.usermanagement.util.Constants;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación del servicio de estadísticas de usuarios
+ * Las agregaciones se calculan en la base de datos y se guardan en caché durante un TTL corto,
+ * de modo que varios paneles consultando a la vez generan una sola consulta por periodo
+ */
+public class UserStatisticsService implements UserStatisticsServiceInterface {
+    
+    private final UserStatisticsDAO statisticsDAO;
+    private final GenderDAO genderDAO;
+    private final long ttlMillis;
+    private final Map<String, CachedValue> cache = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructor con el TTL definido en Constants
+     * @param statisticsDAO DAO de estadísticas
+     * @param genderDAO DAO de géneros para resolver los nombres de género
+     */
+    public UserStatisticsService(UserStatisticsDAO statisticsDAO, GenderDAO genderDAO) {
+        this(statisticsDAO, genderDAO, Constants.STATS_CACHE_TTL_MS);
+    }
+    
+    /**
+     * Constructor con TTL explícito
+     * @param statisticsDAO DAO de estadísticas
+     * @param genderDAO DAO de géneros para resolver los nombres de género
+     * @param ttlMillis tiempo de vida de cada estadística en caché (0 desactiva la caché)
+     */
+    public UserStatisticsService(UserStatisticsDAO statisticsDAO, GenderDAO genderDAO, long ttlMillis) {
+        this.statisticsDAO = statisticsDAO;
+        this.genderDAO = genderDAO;
+        this.ttlMillis = ttlMillis;
+    }
+    
+    @Override
+    public long getUserCount() throws UserManagementException {
+        return cached("count", statisticsDAO::countUsers);
+    }
+    
+    @Override
+    public Map<String, Long> getUserCountByGender() throws UserManagementException {
+        return cached("byGender", () -> {
+            Map<Integer, Long> counts = statisticsDAO.countUsersByGender();
+            Map<String, Long> byName = new LinkedHashMap<>();
+            for (Gender gender : genderDAO.getAllGenders()) {
+                byName.put(gender.getGenderName(), counts.getOrDefault(gender.getGenderId(), 0L));
+            }
+            long withoutGender = counts.getOrDefault(0, 0L);
+            if (withoutGender > 0) {
+                byName.put(Constants.STATS_NO_GENDER_LABEL, withoutGender);
+            }
+            return Collections.unmodifiableMap(byName);
+        });
+    }
+    
+    @Override
+    public long[] getAgeHistogram(int bucketWidth) throws UserManagementException {
+        if (bucketWidth <= 0 || bucketWidth > Constants.MAX_AGE) {
+            throw UserManagementException.validationError(
+                "La amplitud del tramo de edad debe estar entre 1 y " + Constants.MAX_AGE);
+        }
+        long[] histogram = cached("ages:" + bucketWidth, () -> statisticsDAO.countUsersByAgeBucket(bucketWidth));
+        return histogram.clone();
+    }
+    
+    @Override
+    public long[] getSignupsPerDay(LocalDate from, LocalDate to) throws UserManagementException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw UserManagementException.validationError("El rango de días de altas no es válido");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > Constants.STATS_MAX_DAYS) {
+            throw UserManagementException.validationError(
+                "El rango de días de altas no puede superar " + Constants.STATS_MAX_DAYS + " días");
+        }
+        long[] signups = cached("signups:" + from + ":" + to, () -> statisticsDAO.countSignupsPerDay(from, to));
+        return signups.clone();
+    }
+    
+    @Override
+    public void invalidateCache() {
+        cache.clear();
+    }
+    
+    /**
+     * Devuelve una estadística desde la caché o la calcula si falta o expiró
+     * Dos peticiones simultáneas sobre una entrada expirada pueden calcularla ambas; el resultado es el mismo
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, StatisticLoader<T> loader) throws UserManagementException {
+        long now = System.currentTimeMillis();
+        CachedValue entry = cache.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return (T) entry.value;
+        }
+        
+        T value = loader.load();
+        if (ttlMillis > 0) {
+            if (cache.size() >= Constants.STATS_CACHE_MAX_ENTRIES) {
+                // Rangos de fechas distintos generan claves distintas: se purgan las expiradas
+                cache.values().removeIf(cached -> cached.expiresAt <= now);
+            }
+            cache.put(key, new CachedValue(value, now + ttlMillis));
+        }
+        return value;
+    }
+    
+    /**
+     * Cálculo de una estadística contra la base de datos
+     */
+    @FunctionalInterface
+    private interface StatisticLoader<T> {
+        T load() throws UserManagementException;
+    }
+    
+    private static final class CachedValue {
+        private final Object value;
+        private final long expiresAt;
+        
+        private CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.usermanagement.service;
+
+import com.usermanagement.exception.UserManagementException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Interfaz que define los contratos para el servicio de estadísticas de usuarios
+ */
+public interface UserStatisticsServiceInterface {
+    
+    /**
+     * Obtiene el número total de usuarios
+     * @return número de usuarios
+     * @throws UserManagementException si hay error al calcular la estadística
+     */
+    long getUserCount() throws UserManagementException;
+    
+    /**
+     * Obtiene el número de usuarios por género
+     * @return mapa de nombre de género a número de usuarios, en el orden de la tabla gender
+     * @throws UserManagementException si hay error al calcular la estadística
+     */
+    Map<String, Long> getUserCountByGender() throws UserManagementException;
+    
+    /**
+     * Obtiene el histograma de edades
+     * @param bucketWidth amplitud de cada tramo en años
+     * @return arreglo donde la posición i cuenta las edades en [i * bucketWidth, (i + 1) * bucketWidth)
+     * @throws UserManagementException si la amplitud no es válida o hay error al calcular la estadística
+     */
+    long[] getAgeHistogram(int bucketWidth) throws UserManagementException;
+    
+    /**
+     * Obtiene las altas de usuarios por día
+     * @param from primer día (inclusivo)
+     * @param to último día (exclusivo)
+     * @return arreglo donde la posición i cuenta las altas del día from + i
+     * @throws UserManagementException si el rango no es válido o hay error al calcular la estadística
+     */
+    long[] getSignupsPerDay(LocalDate from, LocalDate to) throws UserManagementException;
+    
+    /**
+     * Descarta las estadísticas en caché para recalcularlas en la próxima consulta
+     */
+    void invalidateCache();
+}
@@ -0,0 +1,64 @@
+package com.usermanagement.service;
+
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.User;
+import com.usermanagement.util.Constants;
+
+/**
+ * Reglas de validación de usuarios
+ * Las comparten UserService y los procesos masivos (importación) para que una fila
+ * sea aceptada o rechazada con exactamente los mismos criterios
+ */
+public final class UserValidator {
+    
+    private UserValidator() {
+    }
+    
+    /**
+     * Valida los datos de un usuario
+     * @param user usuario a validar
+     * @throws UserManagementException si la validación falla
+     */
+    public static void validateUser(User user) throws UserManagementException {
+        if (user == null) {
+            throw UserManagementException.validationError("Usuario no puede ser null");
+        }
+        
+        validateName(user.getName());
+        validateAge(user.getAge());
+        validateUserName(user.getUserName());
+    }
+    
+    public static void validateName(String name) throws UserManagementException {
+        if (name == null || name.trim().isEmpty()) {
+            throw UserManagementException.validationError("Nombre es obligatorio");
+        }
+        
+        if (name.length() < Constants.MIN_NAME_LENGTH || 
+            name.length() > Constants.MAX_NAME_LENGTH) {
+            throw UserManagementException.validationError(
+                "Nombre debe tener entre " + Constants.MIN_NAME_LENGTH + 
+                " y " + Constants.MAX_NAME_LENGTH + " caracteres");
+        }
+    }
+    
+    public static void validateAge(Integer age) throws UserManagementException {
+        if (age != null && (age < Constants.MIN_AGE || age > Constants.MAX_AGE)) {
+            throw UserManagementException.validationError(
+                "Edad debe estar entre " + Constants.MIN_AGE + " y " + Constants.MAX_AGE);
+        }
+    }
+    
+    public static void validateUserName(String userName) throws UserManagementException {
+        if (userName == null || userName.trim().isEmpty()) {
+            throw UserManagementException.validationError("Nombre de usuario es obligatorio");
+        }
+        
+        if (userName.length() < Constants.MIN_USERNAME_LENGTH || 
+            userName.length() > Constants.MAX_USERNAME_LENGTH) {
+            throw UserManagementException.validationError(
+                "Nombre de usuario debe tener entre " + Constants.MIN_USERNAME_LENGTH + 
+                " y " + Constants.MAX_USERNAME_LENGTH + " caracteres");
+        }
+    }
+}
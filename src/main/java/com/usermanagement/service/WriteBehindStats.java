@@ -0,0 +1,103 @@
+package com.usermanagement.service;
+
+/**
+ * Instantánea inmutable de las métricas de la escritura diferida de usuarios
+ */
+public final class WriteBehindStats {
+
+    private final int queueSize;
+    private final long enqueuedCount;
+    private final long coalescedCount;
+    private final long rejectedCount;
+    private final long flushCount;
+    private final long writtenCount;
+    private final long failedCount;
+    private final long totalFlushNanos;
+    private final long maxFlushNanos;
+    private final int maxBatchSize;
+
+    WriteBehindStats(int queueSize, long enqueuedCount, long coalescedCount, long rejectedCount,
+                     long flushCount, long writtenCount, long failedCount,
+                     long totalFlushNanos, long maxFlushNanos, int maxBatchSize) {
+        this.queueSize = queueSize;
+        this.enqueuedCount = enqueuedCount;
+        this.coalescedCount = coalescedCount;
+        this.rejectedCount = rejectedCount;
+        this.flushCount = flushCount;
+        this.writtenCount = writtenCount;
+        this.failedCount = failedCount;
+        this.totalFlushNanos = totalFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Usuarios pendientes de escribir (sin contar el lote en curso)
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    /**
+     * Escrituras fusionadas con otra pendiente del mismo usuario en lugar de ocupar una fila propia
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Escrituras rechazadas porque la cola siguió llena durante el tiempo de espera
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        return flushCount == 0 ? 0.0 : (double) (writtenCount + failedCount) / flushCount;
+    }
+
+    public double getAverageFlushMillis() {
+        return flushCount == 0 ? 0.0 : totalFlushNanos / 1_000_000.0 / flushCount;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindStats{" +
+                "queueSize=" + queueSize +
+                ", enqueued=" + enqueuedCount +
+                ", coalesced=" + coalescedCount +
+                ", rejected=" + rejectedCount +
+                ", flushes=" + flushCount +
+                ", written=" + writtenCount +
+                ", failed=" + failedCount +
+                ", avgBatchSize=" + String.format("%.1f", getAverageBatchSize()) +
+                ", maxBatchSize=" + maxBatchSize +
+                ", avgFlushMs=" + String.format("%.3f", getAverageFlushMillis()) +
+                ", maxFlushMs=" + String.format("%.3f", getMaxFlushMillis()) +
+                '}';
+    }
+}
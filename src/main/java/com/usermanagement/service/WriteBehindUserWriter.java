@@ -0,0 +1,489 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.exception.UserManagementException;
+import com.usermanagement.model.BatchResult;
+import com.usermanagement.model.User;
+import com.usermanagement.util.Constants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritura diferida (write-behind) de actualizaciones de usuarios
+ * Las actualizaciones se encolan y un único hilo las escribe en lotes, cada lote en una sola transacción
+ * (group commit), cuando se acumulan maxBatchSize usuarios o cuando la más antigua lleva maxDelayMillis
+ * en la cola. Las actualizaciones consecutivas de un mismo usuario que aún no se han escrito se fusionan
+ * en una sola fila: gana el último valor de cada campo. Si la fila fusionada falla (p. ej. por un
+ * nombre de usuario duplicado que aportó una sola de las escrituras), sus partes se repiten una a una
+ * en orden, de modo que cada llamador recibe el resultado de su propia escritura.
+ *
+ * Garantía de durabilidad: el CompletableFuture de cada escritura se completa después del COMMIT de su
+ * lote, o con la UserManagementException de su fila si falla. Una escritura cuyo futuro no se ha
+ * completado no es durable y se pierde si el proceso termina sin llamar a flush o close. Hasta entonces
+ * las lecturas pueden devolver el valor anterior.
+ *
+ * Las escrituras son "último en escribir gana": la versión del usuario se ignora. Para concurrencia
+ * optimista se debe usar UserService.updateUser/patchUser con la versión.
+ *
+ * La capacidad cuenta escrituras encoladas, también las fusionadas en un mismo usuario: cada una guarda
+ * su parte para poder repetirse. Cuando la cola está llena se vacía de inmediato y las llamadas esperan
+ * hasta offerTimeoutMillis (contrapresión); después se rechazan con BUSINESS_RULE_VIOLATION.
+ */
+public final class WriteBehindUserWriter implements AutoCloseable {
+
+    private final UserDAO userDAO;
+    private final UserCache userCache;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // Orden de inserción: la primera entrada es la más antigua y marca el vencimiento del lote
+    private final LinkedHashMap<Integer, Pending> pending = new LinkedHashMap<>();
+    private List<Pending> writing = Collections.emptyList();
+    // Escrituras encoladas en pending, contando cada parte fusionada
+    private int queuedParts;
+    private boolean flushRequested;
+    private boolean closed;
+    private final Thread flusher;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile int largestBatch;
+
+    /**
+     * Crea un escritor diferido con los parámetros por defecto definidos en Constants
+     * @param userDAO DAO de usuarios
+     * @param userCache caché a invalidar tras cada lote, o null
+     */
+    public WriteBehindUserWriter(UserDAO userDAO, UserCache userCache) {
+        this(userDAO, userCache, Constants.WRITE_BEHIND_CAPACITY, Constants.WRITE_BEHIND_BATCH_SIZE,
+             Constants.WRITE_BEHIND_MAX_DELAY_MS, Constants.WRITE_BEHIND_OFFER_TIMEOUT_MS);
+    }
+
+    /**
+     * Crea un escritor diferido con parámetros explícitos
+     * @param userDAO DAO de usuarios
+     * @param userCache caché a invalidar tras cada lote, o null
+     * @param capacity número máximo de escrituras pendientes
+     * @param maxBatchSize número máximo de usuarios por transacción
+     * @param maxDelayMillis tiempo máximo que una escritura espera en la cola antes de vaciarla
+     * @param offerTimeoutMillis tiempo máximo de espera cuando la cola está llena
+     */
+    public WriteBehindUserWriter(UserDAO userDAO, UserCache userCache, int capacity, int maxBatchSize,
+                                 long maxDelayMillis, long offerTimeoutMillis) {
+        if (capacity <= 0 || maxBatchSize <= 0 || maxBatchSize > capacity) {
+            throw new IllegalArgumentException("Capacidad y tamaño de lote inválidos: " + capacity + ", " + maxBatchSize);
+        }
+        if (maxDelayMillis < 0 || offerTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Los tiempos no pueden ser negativos");
+        }
+        this.userDAO = userDAO;
+        this.userCache = userCache;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.flusher = new Thread(this::runFlusher, "user-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Encola la actualización completa de un usuario
+     * @param user usuario con el ID y todos sus campos
+     * @return CompletableFuture completado tras el COMMIT del lote que contiene la escritura
+     * @throws UserManagementException si hay error de validación, la cola sigue llena o el escritor está cerrado
+     */
+    public CompletableFuture<Void> updateUser(User user) throws UserManagementException {
+        validateId(user);
+        UserValidator.validateUser(user);
+
+        User update = new User();
+        update.setId(user.getId());
+        update.setName(user.getName());
+        update.setAge(user.getAge());
+        update.setGenderId(user.getGenderId());
+        update.setUserName(user.getUserName());
+        return enqueue(update);
+    }
+
+    /**
+     * Encola la actualización de los campos modificados de un usuario (asignados por setter)
+     * @param user usuario con el ID y los campos a modificar
+     * @return CompletableFuture completado tras el COMMIT del lote que contiene la escritura
+     * @throws UserManagementException si hay error de validación, la cola sigue llena o el escritor está cerrado
+     */
+    public CompletableFuture<Void> patchUser(User user) throws UserManagementException {
+        validateId(user);
+        if (user.getDirtyFields().isEmpty()) {
+            throw UserManagementException.validationError("No hay campos para actualizar");
+        }
+        if (user.isDirty(User.Field.NAME)) {
+            UserValidator.validateName(user.getName());
+        }
+        if (user.isDirty(User.Field.AGE)) {
+            UserValidator.validateAge(user.getAge());
+        }
+        if (user.isDirty(User.Field.USER_NAME)) {
+            UserValidator.validateUserName(user.getUserName());
+        }
+
+        User update = new User();
+        update.setId(user.getId());
+        merge(update, user);
+        return enqueue(update);
+    }
+
+    /**
+     * Pide escribir de inmediato todo lo pendiente
+     * @return CompletableFuture completado cuando terminan todas las escrituras encoladas hasta ahora;
+     *         se completa con error si alguna de ellas falla
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Pending entry : writing) {
+                entry.addFutures(futures);
+            }
+            for (Pending entry : pending.values()) {
+                entry.addFutures(futures);
+            }
+            flushRequested = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Obtiene las métricas del escritor
+     * @return WriteBehindStats
+     */
+    public WriteBehindStats getStats() {
+        int queueSize;
+        lock.lock();
+        try {
+            queueSize = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        return new WriteBehindStats(queueSize, enqueuedCount.get(), coalescedCount.get(), rejectedCount.get(),
+                                    flushCount.get(), writtenCount.get(), failedCount.get(),
+                                    totalFlushNanos.get(), maxFlushNanos.get(), largestBatch);
+    }
+
+    /**
+     * Rechaza nuevas escrituras, escribe todo lo pendiente y detiene el hilo de escritura
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(User update) throws UserManagementException {
+        lock.lock();
+        try {
+            long remaining = offerTimeoutNanos;
+            while (!closed && queuedParts >= capacity) {
+                if (remaining <= 0) {
+                    rejectedCount.incrementAndGet();
+                    throw UserManagementException.businessRuleViolation(
+                        "Cola de escritura diferida llena (" + capacity + " escrituras pendientes)");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (closed) {
+                throw UserManagementException.businessRuleViolation("El escritor diferido está cerrado");
+            }
+
+            enqueuedCount.incrementAndGet();
+            queuedParts++;
+            Part part = new Part(update);
+            Pending entry = pending.get(update.getId());
+            if (entry != null) {
+                entry.add(part);
+                coalescedCount.incrementAndGet();
+            } else {
+                entry = new Pending(update.getId(), part, System.nanoTime());
+                pending.put(update.getId(), entry);
+            }
+            if (pending.size() >= maxBatchSize || queuedParts >= capacity || queuedParts == 1) {
+                notEmpty.signal();
+            }
+            return part.future.copy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserManagementException("Interrumpido esperando espacio en la cola de escritura",
+                                              UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            List<Pending> batch = nextBatch();
+            if (batch == null) {
+                return;
+            }
+            try {
+                write(batch);
+            } catch (Throwable e) {
+                // Si el hilo muriera, los futuros del lote y los de toda escritura posterior no se completarían
+                System.err.println("Error inesperado en la escritura diferida de " + batch.size() + " usuarios: " + e);
+                UserManagementException error = new UserManagementException("Error inesperado en la escritura diferida",
+                                                                             UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+                failedCount.addAndGet(batch.size());
+                for (Pending entry : batch) {
+                    entry.completeExceptionally(error);
+                }
+            } finally {
+                lock.lock();
+                try {
+                    writing = Collections.emptyList();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a que toque vaciar la cola y extrae el siguiente lote
+     * @return lote a escribir, o null si el escritor está cerrado y no queda nada pendiente
+     */
+    private List<Pending> nextBatch() {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (closed) {
+                        return null;
+                    }
+                    flushRequested = false;
+                    notEmpty.awaitUninterruptibly();
+                    continue;
+                }
+                if (closed || flushRequested || pending.size() >= maxBatchSize || queuedParts >= capacity) {
+                    break;
+                }
+                long oldest = pending.values().iterator().next().enqueuedAt;
+                long wait = oldest + maxDelayNanos - System.nanoTime();
+                if (wait <= 0) {
+                    break;
+                }
+                try {
+                    notEmpty.awaitNanos(wait);
+                } catch (InterruptedException e) {
+                    // El hilo de escritura solo termina con close(), que vacía la cola
+                }
+            }
+
+            List<Pending> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            Iterator<Pending> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                Pending entry = iterator.next();
+                iterator.remove();
+                batch.add(entry);
+                queuedParts -= entry.parts.size();
+            }
+            writing = batch;
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            users.add(entry.user);
+        }
+
+        long start = System.nanoTime();
+        BatchResult result = null;
+        UserManagementException error = null;
+        try {
+            result = userDAO.patchUsers(users);
+        } catch (UserManagementException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            error = new UserManagementException("Error inesperado en la escritura diferida",
+                                                UserManagementException.ErrorType.UNKNOWN_ERROR, e);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        if (batch.size() > largestBatch) {
+            largestBatch = batch.size();
+        }
+
+        if (userCache != null) {
+            for (User user : users) {
+                userCache.invalidate(user.getId());
+            }
+        }
+
+        if (error != null) {
+            System.err.println("Error en la escritura diferida de " + batch.size() + " usuarios: " + error.getMessage());
+            failedCount.addAndGet(batch.size());
+            for (Pending entry : batch) {
+                entry.completeExceptionally(error);
+            }
+            return;
+        }
+
+        Map<Integer, UserManagementException> failures = result.getFailures();
+        failedCount.addAndGet(failures.size());
+        writtenCount.addAndGet(batch.size() - failures.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending entry = batch.get(i);
+            UserManagementException failure = failures.get(i);
+            if (failure == null) {
+                entry.complete();
+            } else if (entry.parts.size() == 1) {
+                entry.parts.get(0).future.completeExceptionally(failure);
+            } else {
+                replay(entry);
+            }
+        }
+    }
+
+    /**
+     * Repite una a una, en orden de llegada, las escrituras de una fila fusionada que falló
+     * Las partes válidas quedan escritas y cada parte inválida recibe su propio error
+     */
+    private void replay(Pending entry) {
+        for (Part part : entry.parts) {
+            try {
+                userDAO.patchUser(part.update);
+                part.future.complete(null);
+            } catch (UserManagementException e) {
+                part.future.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                part.future.completeExceptionally(new UserManagementException(
+                    "Error inesperado en la escritura diferida", UserManagementException.ErrorType.UNKNOWN_ERROR, e));
+            }
+        }
+        if (userCache != null) {
+            userCache.invalidate(entry.user.getId());
+        }
+    }
+
+    private static void validateId(User user) throws UserManagementException {
+        if (user == null || user.getId() == null || user.getId() <= 0) {
+            throw UserManagementException.validationError("ID de usuario inválido");
+        }
+    }
+
+    /**
+     * Copia en target los campos modificados de source, marcándolos como modificados
+     */
+    private static void merge(User target, User source) {
+        for (User.Field field : source.getDirtyFields()) {
+            switch (field) {
+                case NAME:
+                    target.setName(source.getName());
+                    break;
+                case AGE:
+                    target.setAge(source.getAge());
+                    break;
+                case GENDER_ID:
+                    target.setGenderId(source.getGenderId());
+                    break;
+                case USER_NAME:
+                    target.setUserName(source.getUserName());
+                    break;
+                default:
+                    throw new IllegalStateException("Campo no soportado: " + field);
+            }
+        }
+    }
+
+    /**
+     * Escritura pendiente de un usuario: la fila fusionada y las escrituras que la componen
+     */
+    private static final class Pending {
+        final User user;
+        final long enqueuedAt;
+        final List<Part> parts = new ArrayList<>(1);
+
+        Pending(int id, Part first, long enqueuedAt) {
+            this.user = new User();
+            this.user.setId(id);
+            this.enqueuedAt = enqueuedAt;
+            add(first);
+        }
+
+        void add(Part part) {
+            merge(user, part.update);
+            parts.add(part);
+        }
+
+        void addFutures(List<CompletableFuture<Void>> futures) {
+            for (Part part : parts) {
+                futures.add(part.future);
+            }
+        }
+
+        void complete() {
+            for (Part part : parts) {
+                part.future.complete(null);
+            }
+        }
+
+        void completeExceptionally(Throwable error) {
+            for (Part part : parts) {
+                part.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Una escritura encolada, con su propio futuro
+     */
+    private static final class Part {
+        final User update;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Part(User update) {
+            this.update = update;
+        }
+    }
+}
@@ -16,27 +16,171 @@ public final class Constants {
     public static final String DB_PASSWORD = "P_s@3s3s";
     public static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
     
+    // Constantes del pool de conexiones
+    public static final int DB_POOL_MAX_SIZE = 10;
+    public static final int DB_POOL_MIN_IDLE = 2;
+    public static final long DB_POOL_BORROW_TIMEOUT_MS = 5_000;
+    public static final long DB_POOL_IDLE_TIMEOUT_MS = 300_000;
+    public static final long DB_POOL_LEAK_THRESHOLD_MS = 60_000;
+    public static final long DB_POOL_VALIDATION_BYPASS_MS = 500;
+    public static final int DB_POOL_VALIDATION_TIMEOUT_S = 2;
+    public static final long DB_POOL_HOUSEKEEPING_INTERVAL_MS = 30_000;
+    public static final int DB_STATEMENT_CACHE_SIZE = 64;
+    
+    // Réplicas de lectura: sin URLs todas las lecturas van al primario (DB_URL)
+    // Ejemplo con una segunda instancia local: {"jdbc:mysql://localhost:3307/user_management?connectTimeout=2000"}
+    public static final String[] DB_REPLICA_URLS = {};
+    public static final int DB_REPLICA_POOL_MAX_SIZE = DB_POOL_MAX_SIZE;
+    public static final long DB_REPLICA_BORROW_TIMEOUT_MS = 1_000;
+    // Tras escribir, las lecturas del mismo hilo van al primario durante esta ventana (lectura de lo escrito)
+    public static final long DB_READ_YOUR_WRITES_WINDOW_MS = 2_000;
+    // Una réplica que falla se excluye durante este intervalo y después se vuelve a probar
+    public static final long DB_REPLICA_RETRY_INTERVAL_MS = 10_000;
+    
+    // Fragmentación (sharding) de usuarios: sin URLs de shards todos los usuarios viven en DB_URL.
+    // El número de shards es el número de URLs; cambiarlo requiere redistribuir los usuarios existentes.
+    // En modo fragmentado DB_URL guarda el directorio global de usuarios y la tabla gender de referencia
+    public static final String[] SHARD_URLS = {};
+    
     // Constantes de consultas SQL
     public static final String SQL_SELECT_ALL_USERS = 
-        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, g.gender_name " +
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version, g.gender_name " +
         "FROM users u LEFT JOIN gender g ON u.gender_id = g.gender_id";
     
+    public static final String SQL_SELECT_ALL_USERS_NO_JOIN = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version FROM users u";
+    
     public static final String SQL_SELECT_USER_BY_ID = 
-        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, g.gender_name " +
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version, g.gender_name " +
         "FROM users u LEFT JOIN gender g ON u.gender_id = g.gender_id WHERE u.id = ?";
     
+    public static final String SQL_SELECT_USER_BY_ID_NO_JOIN = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version " +
+        "FROM users u WHERE u.id = ?";
+    
+    public static final String SQL_SELECT_USERS_PAGE = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version, g.gender_name " +
+        "FROM users u LEFT JOIN gender g ON u.gender_id = g.gender_id WHERE u.id > ? ORDER BY u.id LIMIT ?";
+    
+    public static final String SQL_SELECT_USERS_PAGE_NO_JOIN = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version " +
+        "FROM users u WHERE u.id > ? ORDER BY u.id LIMIT ?";
+    
+    public static final String SQL_SELECT_USERS_BY_IDS_PREFIX = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version, g.gender_name " +
+        "FROM users u LEFT JOIN gender g ON u.gender_id = g.gender_id WHERE u.id IN ";
+    
+    public static final String SQL_SELECT_USERS_BY_IDS_PREFIX_NO_JOIN = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version " +
+        "FROM users u WHERE u.id IN ";
+    
     public static final String SQL_INSERT_USER = 
         "INSERT INTO users (name, age, gender_id, user_name) VALUES (?, ?, ?, ?)";
     
+    // La versión se evalúa antes de asignar las columnas: solo aumenta si algún valor cambia
+    // El alias de fila (incoming) sustituye a VALUES(col), obsoleto desde MySQL 8.0.20; requiere 8.0.19 o posterior
+    public static final String SQL_UPSERT_USER = 
+        "INSERT INTO users (name, age, gender_id, user_name) VALUES (?, ?, ?, ?) AS incoming " +
+        "ON DUPLICATE KEY UPDATE " +
+        "version = IF(users.name <=> incoming.name AND users.age <=> incoming.age " +
+        "AND users.gender_id <=> incoming.gender_id, users.version, users.version + 1), " +
+        "name = incoming.name, age = incoming.age, gender_id = incoming.gender_id, id = LAST_INSERT_ID(users.id)";
+    
     public static final String SQL_UPDATE_USER = 
-        "UPDATE users SET name = ?, age = ?, gender_id = ?, user_name = ? WHERE id = ?";
+        "UPDATE users SET name = ?, age = ?, gender_id = ?, user_name = ?, version = version + 1 WHERE id = ?";
+    
+    // Compare-and-set: solo actualiza si la versión no cambió desde que el cliente leyó la fila
+    public static final String SQL_UPDATE_USER_IF_VERSION = 
+        "UPDATE users SET name = ?, age = ?, gender_id = ?, user_name = ?, version = version + 1 " +
+        "WHERE id = ? AND version = ?";
+    
+    // Prefijo y sufijos de las actualizaciones parciales; UserDAO genera una forma por combinación de columnas
+    public static final String SQL_PATCH_USER_PREFIX = "UPDATE users SET ";
+    public static final String SQL_PATCH_USER_SUFFIX = "version = version + 1 WHERE id = ?";
+    public static final String SQL_PATCH_USER_VERSION_SUFFIX = " AND version = ?";
+    
+    // Bloquea la fila y verifica en la misma consulta la unicidad del nombre de usuario y el género
+    public static final String SQL_LOCK_USER_FOR_UPDATE = 
+        "SELECT u.user_name, " +
+        "EXISTS(SELECT 1 FROM users x WHERE x.user_name = ? AND x.id <> u.id) AS user_name_taken, " +
+        "(? IS NULL OR EXISTS(SELECT 1 FROM gender g WHERE g.gender_id = ?)) AS gender_exists " +
+        "FROM users u WHERE u.id = ? FOR UPDATE";
+    
+    // Verificación previa combinada de una inserción: nombre de usuario ocupado y género existente en una consulta
+    public static final String SQL_CHECK_USER_CREATABLE = 
+        "SELECT EXISTS(SELECT 1 FROM users WHERE user_name = ?) AS user_name_taken, " +
+        "(? IS NULL OR EXISTS(SELECT 1 FROM gender WHERE gender_id = ?)) AS gender_exists";
     
     public static final String SQL_DELETE_USER = "DELETE FROM users WHERE id = ?";
     
+    // Modo fragmentado: alta con el ID asignado por el directorio global
+    public static final String SQL_INSERT_USER_WITH_ID = 
+        "INSERT INTO users (id, name, age, gender_id, user_name) VALUES (?, ?, ?, ?, ?)";
+    
+    // Directorio global de usuarios (modo fragmentado): asigna los IDs y garantiza la unicidad de user_name
+    public static final String SQL_INSERT_USER_DIRECTORY = "INSERT INTO user_directory (user_name) VALUES (?)";
+    public static final String SQL_UPDATE_USER_DIRECTORY = "UPDATE user_directory SET user_name = ? WHERE id = ?";
+    public static final String SQL_DELETE_USER_DIRECTORY = "DELETE FROM user_directory WHERE id = ?";
+    public static final String SQL_SELECT_USER_DIRECTORY_ID = "SELECT id FROM user_directory WHERE user_name = ?";
+    public static final String SQL_SELECT_EXISTING_DIRECTORY_NAMES_PREFIX =
+        "SELECT user_name FROM user_directory WHERE user_name IN ";
+    
+    // Sincronización incremental: keyset sobre (update_date, id), excluyendo el último tramo de
+    // SYNC_SAFETY_LAG_SECONDS para no adelantar la marca de agua sobre filas aún sin confirmar
+    public static final String SQL_SELECT_USERS_CHANGED_AFTER = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version, g.gender_name " +
+        "FROM users u LEFT JOIN gender g ON u.gender_id = g.gender_id " +
+        "WHERE u.update_date < NOW() - INTERVAL ? SECOND " +
+        "AND (u.update_date > ? OR (u.update_date = ? AND u.id > ?)) " +
+        "ORDER BY u.update_date, u.id LIMIT ?";
+    
+    public static final String SQL_SELECT_USERS_CHANGED_AFTER_NO_JOIN = 
+        "SELECT u.id, u.name, u.age, u.gender_id, u.user_name, u.insert_date, u.update_date, u.version " +
+        "FROM users u " +
+        "WHERE u.update_date < NOW() - INTERVAL ? SECOND " +
+        "AND (u.update_date > ? OR (u.update_date = ? AND u.id > ?)) " +
+        "ORDER BY u.update_date, u.id LIMIT ?";
+    
+    public static final String SQL_SELECT_TOMBSTONES_AFTER = 
+        "SELECT user_id, user_name, deleted_at FROM users_tombstone " +
+        "WHERE deleted_at < NOW() - INTERVAL ? SECOND " +
+        "AND (deleted_at > ? OR (deleted_at = ? AND user_id > ?)) " +
+        "ORDER BY deleted_at, user_id LIMIT ?";
+    
+    public static final String SQL_PURGE_TOMBSTONES = "DELETE FROM users_tombstone WHERE deleted_at < ?";
+    
+    public static final String SQL_EXISTS_USER_BY_ID = "SELECT 1 FROM users WHERE id = ? LIMIT 1";
+    
+    public static final String SQL_EXISTS_USER_BY_USERNAME = "SELECT 1 FROM users WHERE user_name = ? LIMIT 1";
+    
+    public static final String SQL_SELECT_EXISTING_USERNAMES_PREFIX = "SELECT user_name FROM users WHERE user_name IN ";
+    
+    // Consultas de estadísticas: la agregación se resuelve en la base de datos sobre los índices de users
+    public static final String SQL_COUNT_USERS = "SELECT COUNT(*) FROM users";
+    
+    public static final String SQL_COUNT_USERS_BY_GENDER = 
+        "SELECT gender_id, COUNT(*) AS total FROM users GROUP BY gender_id";
+    
+    public static final String SQL_COUNT_USERS_BY_AGE_BUCKET = 
+        "SELECT age DIV ? AS bucket, COUNT(*) AS total FROM users WHERE age IS NOT NULL GROUP BY bucket";
+    
+    public static final String SQL_COUNT_SIGNUPS_PER_DAY = 
+        "SELECT DATE(insert_date) AS day, COUNT(*) AS total FROM users " +
+        "WHERE insert_date >= ? AND insert_date < ? GROUP BY day";
+    
     public static final String SQL_SELECT_ALL_GENDERS = "SELECT gender_id, gender_name FROM gender";
     
     public static final String SQL_SELECT_GENDER_BY_ID = "SELECT gender_id, gender_name FROM gender WHERE gender_id = ?";
     
+    // Replicación de la tabla de referencia gender en cada shard
+    public static final String SQL_UPSERT_GENDER = 
+        "INSERT INTO gender (gender_id, gender_name) VALUES (?, ?) AS incoming " +
+        "ON DUPLICATE KEY UPDATE gender_name = incoming.gender_name";
+    
+    public static final String SQL_EXISTS_GENDER_BY_ID = "SELECT 1 FROM gender WHERE gender_id = ? LIMIT 1";
+    
+    public static final String SQL_SELECT_EXISTING_GENDER_IDS_PREFIX = "SELECT gender_id FROM gender WHERE gender_id IN ";
+    
     // Constantes de mensajes
     public static final String MSG_USER_CREATED = "Usuario creado exitosamente con ID: ";
     public static final String MSG_USER_UPDATED = "Usuario actualizado exitosamente";
@@ -53,4 +197,61 @@ public final class Constants {
     public static final int MAX_NAME_LENGTH = 100;
     public static final int MIN_USERNAME_LENGTH = 3;
     public static final int MAX_USERNAME_LENGTH = 50;
+    
+    // Constantes de paginación
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    // Constantes de la caché de géneros
+    public static final long GENDER_CACHE_REFRESH_MS = 300_000;
+    public static final int GENDER_CACHE_MAX_ID = 10_000;
+    
+    // Constantes de la caché de usuarios
+    public static final boolean USER_CACHE_ENABLED = true;
+    public static final String USER_CACHE_ENABLED_PROPERTY = "usermanagement.userCache.enabled";
+    public static final int USER_CACHE_MAX_SIZE = 10_000;
+    public static final long USER_CACHE_TTL_MS = 60_000;
+    public static final long USER_CACHE_NEGATIVE_TTL_MS = 5_000;
+    
+    // Constantes de operaciones por lotes
+    public static final int BATCH_CHUNK_SIZE = 500;
+    // Tamaños fijos de cláusula IN: cada consulta se rellena hasta el tamaño siguiente
+    // para que solo existan unas pocas formas de sentencia y todas se reutilicen desde la caché
+    public static final int[] IN_CLAUSE_SHAPES = {1, 4, 16, 64, 256};
+    public static final int IN_CLAUSE_CHUNK_SIZE = 256;
+    
+    // Constantes de importación masiva
+    public static final int IMPORT_BATCH_SIZE = 2_000;
+    public static final int IMPORT_PARALLELISM = 4;
+    public static final long IMPORT_PROGRESS_INTERVAL = 100_000;
+    
+    // Constantes de exportación masiva
+    public static final int EXPORT_BUFFER_SIZE = 256 * 1024;
+    public static final long EXPORT_PROGRESS_INTERVAL = 100_000;
+    
+    // Constantes de estadísticas
+    public static final long STATS_CACHE_TTL_MS = 30_000;
+    public static final int STATS_CACHE_MAX_ENTRIES = 256;
+    public static final int STATS_MAX_DAYS = 366;
+    public static final String STATS_NO_GENDER_LABEL = "Sin género";
+    
+    // Constantes de sincronización incremental
+    // update_date y deleted_at toman la hora de inicio de la sentencia, pero la fila solo es visible tras el
+    // COMMIT: el feed solo entrega filas más antiguas que este margen, que debe superar la transacción de
+    // escritura más larga (unidades de trabajo de importación, lotes de escritura diferida, reintentos fila
+    // a fila). Una transacción que confirma más tarde puede quedar detrás de una marca de agua ya entregada.
+    // Se ajusta por despliegue con -Dusermanagement.sync.safetyLagSeconds=N; UnitOfWork avisa si se supera
+    public static final String SYNC_SAFETY_LAG_PROPERTY = "usermanagement.sync.safetyLagSeconds";
+    public static final int SYNC_SAFETY_LAG_SECONDS = Integer.getInteger(SYNC_SAFETY_LAG_PROPERTY, 60);
+    public static final int SYNC_MAX_BATCH_SIZE = 10_000;
+    
+    // Constantes de la API asíncrona: la concurrencia contra JDBC no supera el tamaño del pool
+    public static final int ASYNC_MAX_CONCURRENCY = DB_POOL_MAX_SIZE;
+    public static final long ASYNC_DEFAULT_TIMEOUT_MS = 10_000;
+    
+    // Constantes de escritura diferida (write-behind): cola acotada y vaciado por tamaño o por tiempo
+    public static final int WRITE_BEHIND_CAPACITY = 10_000;
+    public static final int WRITE_BEHIND_BATCH_SIZE = 500;
+    public static final long WRITE_BEHIND_MAX_DELAY_MS = 200;
+    public static final long WRITE_BEHIND_OFFER_TIMEOUT_MS = 5_000;
 } 
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.usermanagement.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores opacos de la paginación por clave
+ * Un cursor contiene la posición de la última fila entregada, en Base64 URL-safe
+ */
+public final class CursorCodec {
+    
+    private static final String VERSION = "v1";
+    private static final char SEPARATOR = '|';
+    
+    // Constructor privado para evitar instanciación
+    private CursorCodec() {
+        throw new UnsupportedOperationException("Esta clase no puede ser instanciada");
+    }
+    
+    /**
+     * Codifica las partes de una posición en un cursor opaco
+     * @param parts valores que identifican la última fila (sin el carácter '|')
+     * @return cursor opaco
+     */
+    public static String encode(String... parts) {
+        StringBuilder raw = new StringBuilder(VERSION);
+        for (String part : parts) {
+            raw.append(SEPARATOR).append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodifica un cursor opaco
+     * @param cursor cursor generado por encode
+     * @param expectedParts número de partes esperadas
+     * @return partes de la posición
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+        String[] tokens = raw.split("\\|", -1);
+        if (tokens.length != expectedParts + 1 || !VERSION.equals(tokens[0])) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String[] parts = new String[expectedParts];
+        System.arraycopy(tokens, 1, parts, 0, expectedParts);
+        return parts;
+    }
+    
+    /**
+     * Codifica un cursor que solo contiene el ID de la última fila
+     * @param lastId ID de la última fila entregada
+     * @return cursor opaco
+     */
+    public static String encodeId(int lastId) {
+        return encode(Integer.toString(lastId));
+    }
+    
+    /**
+     * Decodifica un cursor que solo contiene un ID
+     * @param cursor cursor opaco
+     * @return ID de la última fila entregada
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static int decodeId(String cursor) {
+        try {
+            return Integer.parseInt(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
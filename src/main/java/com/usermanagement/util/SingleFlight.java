@@ -0,0 +1,149 @@
+package com.usermanagement.util;
+
+import com.usermanagement.exception.UserManagementException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa llamadas concurrentes idénticas (single-flight)
+ * Mientras una carga para una clave está en curso, las demás llamadas con la misma clave esperan
+ * y reciben su resultado o su error en lugar de repetir la consulta. La entrada se elimina al
+ * completarse la carga, por lo que nunca se entrega un resultado ya terminado: no es una caché.
+ * @param <K> tipo de la clave
+ * @param <V> tipo del resultado
+ */
+public final class SingleFlight<K, V> {
+    
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    
+    /**
+     * Constructor
+     * @param copier copia el resultado para cada llamada agrupada, de modo que ningún hilo
+     *               comparta un objeto mutable con otro (UnaryOperator.identity() si es inmutable)
+     */
+    public SingleFlight(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+    
+    /**
+     * Ejecuta la carga de una clave o se une a la que ya está en curso
+     * @param key clave de la carga
+     * @param loader carga a ejecutar si no hay otra en curso para la clave
+     * @return resultado de la carga
+     * @throws UserManagementException error de la carga, propagado a todas las llamadas agrupadas
+     */
+    public V execute(K key, Loader<K, V> loader) throws UserManagementException {
+        calls.increment();
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+        
+        try {
+            V value = loader.load(key);
+            mine.complete(value);
+            return value;
+        } catch (UserManagementException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    /**
+     * Olvida la carga en curso de una clave: las llamadas posteriores inician una carga nueva
+     * Se usa tras escribir el dato, para que una lectura posterior a la escritura no se una a una
+     * carga que empezó antes y devolvería el valor anterior. Las llamadas ya unidas no cambian.
+     * @param key clave a olvidar
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+    
+    /**
+     * Obtiene una instantánea de los contadores
+     * @return Stats con las llamadas totales, agrupadas y en curso
+     */
+    public Stats getStats() {
+        return new Stats(calls.sum(), collapsed.sum(), inFlight.size());
+    }
+    
+    private V await(CompletableFuture<V> leader) throws UserManagementException {
+        try {
+            return copier.apply(leader.join());
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UserManagementException) {
+                throw (UserManagementException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+    
+    /**
+     * Carga de un valor por clave
+     * @param <K> tipo de la clave
+     * @param <V> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws UserManagementException;
+    }
+    
+    /**
+     * Instantánea inmutable de los contadores de un SingleFlight
+     */
+    public static final class Stats {
+        private final long calls;
+        private final long collapsed;
+        private final int inFlight;
+        
+        private Stats(long calls, long collapsed, int inFlight) {
+            this.calls = calls;
+            this.collapsed = collapsed;
+            this.inFlight = inFlight;
+        }
+        
+        public long getCalls() {
+            return calls;
+        }
+        
+        /**
+         * Llamadas que se unieron a una carga en curso en lugar de consultar la base de datos
+         */
+        public long getCollapsed() {
+            return collapsed;
+        }
+        
+        public int getInFlight() {
+            return inFlight;
+        }
+        
+        public double getCollapseRatio() {
+            return calls == 0 ? 0.0 : (double) collapsed / calls;
+        }
+        
+        @Override
+        public String toString() {
+            return "SingleFlight.Stats{" +
+                    "calls=" + calls +
+                    ", collapsed=" + collapsed +
+                    ", inFlight=" + inFlight +
+                    ", collapseRatio=" + String.format("%.3f", getCollapseRatio()) +
+                    '}';
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.sql.ResultSet;
 import java.sql.PreparedStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Types;
 
 /**
  * Clase de utilidades para operaciones SQL comunes
@@ -119,4 +120,84 @@ public final class SqlUtils {
             return null;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Genera la lista de marcadores de una cláusula IN
+     * @param count número de marcadores (mayor que 0)
+     * @return cadena de la forma "(?, ?, ?)"
+     */
+    public static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 3 + 1).append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('?');
+        }
+        return builder.append(')').toString();
+    }
+    
+    /**
+     * Obtiene el tamaño de cláusula IN a usar para un número de valores
+     * @param count número de valores (entre 1 y Constants.IN_CLAUSE_CHUNK_SIZE)
+     * @return el menor tamaño de Constants.IN_CLAUSE_SHAPES que admite count valores
+     */
+    public static int inClauseShape(int count) {
+        for (int shape : Constants.IN_CLAUSE_SHAPES) {
+            if (shape >= count) {
+                return shape;
+            }
+        }
+        throw new IllegalArgumentException("Demasiados valores para una cláusula IN: " + count);
+    }
+    
+    /**
+     * Asigna un Integer que puede ser null a un parámetro de una sentencia
+     * @param statement sentencia preparada
+     * @param index posición del parámetro
+     * @param value valor o null
+     * @throws SQLException si hay error al asignar el parámetro
+     */
+    public static void setNullableInt(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+    
+    /**
+     * Verifica si un error corresponde a una clave duplicada (índice UNIQUE o PRIMARY KEY)
+     * @param e excepción SQL
+     * @return true si es el error 1062 de MySQL (ER_DUP_ENTRY)
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062;
+    }
+    
+    /**
+     * Verifica si un error corresponde a una clave foránea inexistente
+     * @param e excepción SQL
+     * @return true si es el error 1452 de MySQL (ER_NO_REFERENCED_ROW_2)
+     */
+    public static boolean isForeignKeyViolation(SQLException e) {
+        return e.getErrorCode() == 1452;
+    }
+    
+    /**
+     * Escapa los comodines de LIKE para buscar un texto literal
+     * @param value texto a buscar
+     * @return texto con '\', '%' y '_' escapados
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}